@@ -1,5 +1,6 @@
 plugins {
     id("java")
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "xyz.joseyamut"
@@ -23,4 +24,101 @@ dependencies {
 
 tasks.test {
     useJUnitPlatform()
-}
\ No newline at end of file
+}
+
+jmh {
+    jmhVersion.set("1.37")
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    profilers.add("gc")
+    jvmArgsAppend.add("-Djava.awt.headless=true")
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+}
+tasks.jar {
+    manifest {
+        attributes("Main-Class" to "xyz.joseyamut.TowerOfHanoi")
+    }
+}
+
+// AppCDS needs the same jar class path when dumping and when using the archive
+val appClasspath = files(tasks.jar, configurations.runtimeClasspath)
+val cdsArchiveFile = layout.buildDirectory.file("cds/toh.jsa")
+val runtimeImageDir = layout.buildDirectory.dir("image")
+
+val cdsArchive = tasks.register<JavaExec>("cdsArchive") {
+    group = "distribution"
+    description = "Dumps an AppCDS archive of the classes a headless training run loads."
+    classpath = appClasspath
+    mainClass.set("xyz.joseyamut.TowerOfHanoi")
+    args("--headless", "bench", "--quick")
+    jvmArgs("-XX:ArchiveClassesAtExit=${cdsArchiveFile.get().asFile}")
+    outputs.file(cdsArchiveFile)
+    doFirst {
+        cdsArchiveFile.get().asFile.parentFile.mkdirs()
+    }
+}
+
+// The modules come from jdeps unless -PjlinkModules lists them
+tasks.register<Exec>("runtimeImage") {
+    group = "distribution"
+    description = "Links a trimmed Java runtime holding only the modules the game uses."
+    dependsOn(tasks.jar)
+    val modulesProperty = providers.gradleProperty("jlinkModules")
+    val javaHome = System.getProperty("java.home")
+    inputs.files(appClasspath)
+    inputs.property("modules", modulesProperty.orElse("jdeps"))
+    outputs.dir(runtimeImageDir)
+    doFirst {
+        delete(runtimeImageDir)
+        val modules = modulesProperty.orNull ?: providers.exec {
+            commandLine(listOf(File(javaHome, "bin/jdeps").path, "--print-module-deps", "--ignore-missing-deps",
+                    "--multi-release", JavaVersion.current().majorVersion) + appClasspath.files.map { it.path })
+        }.standardOutput.asText.get().trim()
+        logger.lifecycle("Linking $modules")
+        commandLine(File(javaHome, "bin/jlink"), "--add-modules", modules,
+                "--strip-debug", "--no-header-files", "--no-man-pages", "--compress=2",
+                "--output", runtimeImageDir.get().asFile)
+    }
+}
+
+// Runs the game a few times with -Dtoh.startupProbe=true and keeps the best of
+// the reported times; the GUI path needs a display and is skipped without one.
+// Run on demand, it is not part of build
+tasks.register("startupReport") {
+    group = "verification"
+    description = "Measures cold start of the headless CLI, with and without AppCDS, and of the GUI."
+    dependsOn(tasks.jar, cdsArchive)
+    val report = layout.buildDirectory.file("reports/startup.txt")
+    outputs.file(report)
+    outputs.upToDateWhen { false }
+    doLast {
+        val java = File(System.getProperty("java.home"), "bin/java").path
+        val classpath = appClasspath.asPath
+        val cli = listOf("xyz.joseyamut.TowerOfHanoi", "--headless", "solve", "10", "--count")
+        val gui = listOf("xyz.joseyamut.TowerOfHanoi")
+        val cds = "-XX:SharedArchiveFile=${cdsArchiveFile.get().asFile}"
+
+        fun startup(jvmArgs: List<String>, command: List<String>): String {
+            val times = (1..5).mapNotNull {
+                val result = providers.exec {
+                    commandLine(listOf(java, "-Dtoh.startupProbe=true", "-cp", classpath) + jvmArgs + command)
+                    isIgnoreExitValue = true
+                }
+                Regex("""startup \w+ (\d+) ms""").find(result.standardError.asText.get())
+                        ?.groupValues?.get(1)?.toLong()
+            }
+            return times.minOrNull()?.let { "$it ms" } ?: "not measured"
+        }
+
+        val os = System.getProperty("os.name").lowercase()
+        val hasDisplay = System.getenv("DISPLAY") != null || os.startsWith("windows") || os.startsWith("mac")
+        val lines = listOf(
+                "cli:          " + startup(emptyList(), cli),
+                "cli + AppCDS: " + startup(listOf(cds), cli),
+                "gui:          " + if (hasDisplay) startup(emptyList(), gui) else "skipped, no display")
+        report.get().asFile.writeText(lines.joinToString("\n", postfix = "\n"))
+        lines.forEach { logger.lifecycle("Startup $it") }
+    }
+}
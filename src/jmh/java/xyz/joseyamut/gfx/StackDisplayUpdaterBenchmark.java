@@ -0,0 +1,56 @@
+package xyz.joseyamut.gfx;
+
+import org.openjdk.jmh.annotations.*;
+import xyz.joseyamut.util.FixedStack;
+import xyz.joseyamut.util.GameState;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StackDisplayUpdaterBenchmark {
+
+    @Param({"4", "5", "6", "7", "8", "64"})
+    private int disks;
+
+    private BufferedImage image;
+    private Graphics2D g;
+    private FixedStack stack;
+    private GameState state;
+    private Rectangle area;
+    private StageLayout layout;
+
+    @Setup
+    public void setUp() {
+        image = new BufferedImage(590, 440, BufferedImage.TYPE_INT_RGB);
+        g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        stack = new FixedStack(disks);
+        for (int i = disks; i > 0; i--) {
+            stack.push(i);
+        }
+        state = new GameState(disks);
+        area = new Rectangle();
+        layout = new StageLayout(590, 440, disks + 1, GameState.PEGS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        g.dispose();
+    }
+
+    @Benchmark
+    public Rectangle drawFixedStack() {
+        return StackDisplayUpdater.draw(g, layout, stack, 0, area);
+    }
+
+    @Benchmark
+    public Rectangle drawGameState() {
+        return StackDisplayUpdater.draw(g, layout, state, 0, 0, false, area);
+    }
+
+}
@@ -0,0 +1,59 @@
+package xyz.joseyamut.gfx;
+
+import org.openjdk.jmh.annotations.*;
+import xyz.joseyamut.util.FixedStack;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One frame of the stage: capturing its {@link Scene} on the EDT, and
+ * capturing plus drawing it into an off-screen image, the work of the render
+ * thread minus the final blit. Runs headless, so the stage is never shown.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StageFrameBenchmark {
+
+    @Param({"4", "5", "6", "7", "8", "64"})
+    private int disks;
+
+    private Stage stage;
+    private BufferedImage image;
+    private Graphics2D g2d;
+
+    @Setup
+    public void setUp() {
+        FixedStack fillStack = new FixedStack(disks);
+        for (int i = disks; i > 0; i--) {
+            fillStack.push(i);
+        }
+        stage = new Stage(fillStack);
+        stage.setSize(590, 440);
+
+        image = new BufferedImage(590, 440, BufferedImage.TYPE_INT_RGB);
+        g2d = image.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+    }
+
+    @TearDown
+    public void tearDown() {
+        g2d.dispose();
+    }
+
+    @Benchmark
+    public Scene capture() {
+        return stage.captureScene();
+    }
+
+    @Benchmark
+    public BufferedImage frame() {
+        stage.captureScene().draw(g2d);
+        return image;
+    }
+
+}
@@ -0,0 +1,47 @@
+package xyz.joseyamut.rules;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full solutions of every rule variant streamed into a checksum. The
+ * solutions differ in length, so the {@code moves} counter, reported per
+ * second, is the number to compare across variants.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RuleVariantBenchmark {
+
+    @Param({"classic", "cyclic", "adjacent", "bicolour"})
+    private String variantName;
+
+    @Param({"12", "16"})
+    private int disks;
+
+    private RuleVariant variant;
+    private long sum;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Moves {
+
+        public long moves;
+
+    }
+
+    @Setup
+    public void setUp() {
+        variant = RuleVariants.byName(variantName);
+    }
+
+    @Benchmark
+    public long solve(Moves counter) {
+        sum = 0;
+        variant.solve(disks, (disk, from, to) -> sum += disk + from + to);
+        counter.moves += variant.moveCount(disks);
+        return sum;
+    }
+
+}
@@ -0,0 +1,72 @@
+package xyz.joseyamut.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ClickedStackAreaBenchmark {
+
+    private static final int DISK_HEIGHT = 20;
+    private static final int[] POLES = {98, 298, 498};
+
+    @Param({"4", "5", "6", "7", "8"})
+    private int disks;
+
+    private ArrayList<Rectangle> areas;
+    private ArrayList<FixedStack> stacks;
+    private Map<String, FixedStack> stackMap;
+    private StackAreaIndex index;
+    // Press points cycling over the three pegs and one miss
+    private int[] pointsX;
+    private int pointY;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        int elements = disks + 1;
+        int widestDiskWidth = (elements - 1) * DISK_HEIGHT;
+        int y = 240 - elements * DISK_HEIGHT;
+        areas = new ArrayList<>();
+        stacks = new ArrayList<>();
+        for (int pole : POLES) {
+            areas.add(new Rectangle(pole - widestDiskWidth / 2 - 2, y, widestDiskWidth + 2, elements * DISK_HEIGHT));
+            stacks.add(new FixedStack(disks));
+        }
+        stackMap = new HashMap<>();
+        index = new StackAreaIndex();
+        index.rebuild(areas.toArray(new Rectangle[0]), 600);
+        pointsX = new int[] {POLES[0], POLES[1], POLES[2], 590};
+        pointY = 230;
+    }
+
+    @Benchmark
+    public boolean updateMapIfActionIsValid() {
+        int pointX = pointsX[next++ & 3];
+        return ClickedStackArea.updateMapIfActionIsValid("SRC", stackMap,
+                pointX, pointY,
+                new ArrayList<>(Arrays.asList(areas.get(0), areas.get(1), areas.get(2))),
+                new ArrayList<>(Arrays.asList(stacks.get(0), stacks.get(1), stacks.get(2))));
+    }
+
+    @Benchmark
+    public int indexOfArea() {
+        int pointX = pointsX[next++ & 3];
+        return ClickedStackArea.indexOfArea(pointX, pointY,
+                new ArrayList<>(Arrays.asList(areas.get(0), areas.get(1), areas.get(2))));
+    }
+
+    @Benchmark
+    public int stackAreaIndex() {
+        int pointX = pointsX[next++ & 3];
+        return index.indexOf(pointX, pointY);
+    }
+
+}
@@ -0,0 +1,34 @@
+package xyz.joseyamut.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FixedStackBenchmark {
+
+    @Param({"4", "5", "6", "7", "8"})
+    private int disks;
+
+    private FixedStack stack;
+
+    @Setup
+    public void setUp() {
+        stack = new FixedStack(disks);
+    }
+
+    @Benchmark
+    public int pushThenPop() {
+        for (int i = disks; i > 0; i--) {
+            stack.push(i);
+        }
+        int sum = 0;
+        while (!stack.isEmpty()) {
+            sum += stack.pop();
+        }
+        return sum;
+    }
+
+}
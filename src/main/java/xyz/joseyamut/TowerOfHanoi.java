@@ -1,10 +1,26 @@
 package xyz.joseyamut;
 
+import xyz.joseyamut.cli.HeadlessCli;
 import xyz.joseyamut.gfx.TohWindow;
+import xyz.joseyamut.util.StartupProbe;
+
+import java.util.Arrays;
 
 public class TowerOfHanoi {
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals(HeadlessCli.FLAG)) {
+            System.exit(HeadlessCli.run(Arrays.copyOfRange(args, 1, args.length)));
+        }
+        launchWindow();
+    }
+
+    // Kept apart so the headless path never loads the Swing classes
+    private static void launchWindow() {
         TohWindow tohWindow = new TohWindow();
         tohWindow.launch();
+        if (StartupProbe.isEnabled()) {
+            StartupProbe.report("gui");
+            System.exit(0);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,72 @@
+package xyz.joseyamut.cli;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line of one subcommand: positional values, and options written as
+ * {@code --name=value} or, for flags, just {@code --name}.
+ */
+public class Arguments {
+
+    private final List<String> positionals = new ArrayList<>();
+    private final Map<String, String> options = new HashMap<>();
+
+    public Arguments(List<String> args) {
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                int equals = arg.indexOf('=');
+                if (equals < 0) {
+                    options.put(arg.substring(2), "");
+                } else {
+                    options.put(arg.substring(2, equals), arg.substring(equals + 1));
+                }
+            } else {
+                positionals.add(arg);
+            }
+        }
+    }
+
+    public int size() {
+        return positionals.size();
+    }
+
+    public List<String> positionals() {
+        return positionals;
+    }
+
+    public String positional(int index, String name) {
+        if (index >= positionals.size()) {
+            throw new UsageException("Missing <" + name + ">");
+        }
+        return positionals.get(index);
+    }
+
+    public int intPositional(int index, String name) {
+        return parseInt(name, positional(index, name));
+    }
+
+    public boolean flag(String name) {
+        return options.containsKey(name);
+    }
+
+    public String option(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    public int intOption(String name, int defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : parseInt("--" + name, value);
+    }
+
+    private static int parseInt(String name, String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new UsageException(name + " must be a number: " + value);
+        }
+    }
+
+}
@@ -0,0 +1,61 @@
+package xyz.joseyamut.cli;
+
+import xyz.joseyamut.solver.IterativeSolver;
+import xyz.joseyamut.solver.OptimalSolution;
+
+import java.io.PrintStream;
+
+/**
+ * Quick solver throughput check, sequential and over all cores. The JMH
+ * benchmarks are the reference; this is for a machine without the build.
+ */
+public class BenchCommand implements Command {
+
+    @Override
+    public String name() {
+        return "bench";
+    }
+
+    @Override
+    public String usage() {
+        return "bench [--disks=24] [--runs=5] [--quick]";
+    }
+
+    @Override
+    public int run(Arguments args, PrintStream out) {
+        boolean quick = args.flag("quick");
+        int disks = args.intOption("disks", quick ? 16 : 24);
+        int runs = args.intOption("runs", quick ? 1 : 5);
+        if (disks < 1 || disks > 40) {
+            throw new UsageException("--disks must be between 1 and 40");
+        }
+        if (runs < 1) {
+            throw new UsageException("--runs must be at least 1");
+        }
+
+        long moves = IterativeSolver.moveCount(disks);
+        long sequential = Long.MAX_VALUE;
+        long parallel = Long.MAX_VALUE;
+        long checksum = 0;
+        for (int run = 0; run < runs; run++) {
+            long[] sum = new long[1];
+            long start = System.nanoTime();
+            IterativeSolver.solve(disks, (disk, from, to) -> sum[0] += disk + from + to);
+            sequential = Math.min(sequential, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            checksum += OptimalSolution.stream(disks, true).asLongStream().sum();
+            parallel = Math.min(parallel, System.nanoTime() - start);
+            checksum += sum[0];
+        }
+
+        out.printf("%d disks, %d moves, best of %d runs%n", disks, moves, runs);
+        out.printf("sequential: %8.1f ms, %6.1f M moves/s%n", sequential / 1e6, moves * 1e3 / sequential);
+        out.printf("parallel:   %8.1f ms, %6.1f M moves/s on %d cores%n", parallel / 1e6, moves * 1e3 / parallel,
+                Runtime.getRuntime().availableProcessors());
+        // Keeps the work observable so none of it is optimised away
+        out.printf("checksum %d%n", checksum);
+        return 0;
+    }
+
+}
@@ -0,0 +1,20 @@
+package xyz.joseyamut.cli;
+
+import java.io.PrintStream;
+
+/**
+ * One subcommand of the headless mode. Implementations stay clear of
+ * {@code java.awt} and {@code javax.swing}.
+ */
+public interface Command {
+
+    String name();
+
+    String usage();
+
+    /**
+     * @return the process exit code
+     */
+    int run(Arguments args, PrintStream out) throws Exception;
+
+}
@@ -0,0 +1,62 @@
+package xyz.joseyamut.cli;
+
+import xyz.joseyamut.solver.IterativeSolver;
+import xyz.joseyamut.solver.Move;
+import xyz.joseyamut.solver.StateSpaceExplorer;
+import xyz.joseyamut.util.GameState;
+
+import java.io.PrintStream;
+
+/**
+ * Searches every configuration of a three peg board from the full tower on X,
+ * and prints how many lie at each distance, the diameter of the state graph,
+ * and the length of the solution next to the one the search finds.
+ */
+public class ExploreCommand implements Command {
+
+    @Override
+    public String name() {
+        return "explore";
+    }
+
+    @Override
+    public String usage() {
+        return "explore <disks> [--summary]";
+    }
+
+    @Override
+    public int run(Arguments args, PrintStream out) {
+        int disks = args.intPositional(0, "disks");
+        if (disks < 1 || disks > StateSpaceExplorer.MAX_DISKS) {
+            throw new UsageException("<disks> must be between 1 and " + StateSpaceExplorer.MAX_DISKS);
+        }
+
+        StateSpaceExplorer explorer = new StateSpaceExplorer(disks);
+        GameState start = tower(disks, Move.PEG_X);
+        long began = System.nanoTime();
+        StateSpaceExplorer.Exploration exploration = explorer.explore(start);
+        long searched = explorer.distance(start, tower(disks, Move.PEG_Z));
+        long elapsed = System.nanoTime() - began;
+
+        long solution = IterativeSolver.moveCount(disks);
+        out.printf("%d disks: %d of %d states reached, diameter %d, in %.1f ms%n", disks,
+                exploration.reached(), explorer.states(), exploration.eccentricity(), elapsed / 1e6);
+        out.printf("X to Z: %d moves by search, %d by the solver%n", searched, solution);
+        if (!args.flag("summary")) {
+            long[] distribution = exploration.distribution();
+            for (int distance = 0; distance < distribution.length; distance++) {
+                out.printf("%d %d%n", distance, distribution[distance]);
+            }
+        }
+        return exploration.reached() == explorer.states() && searched == solution ? 0 : 1;
+    }
+
+    private static GameState tower(int disks, int peg) {
+        GameState state = new GameState(disks);
+        for (int disk = 1; disk <= disks; disk++) {
+            state.place(disk, peg);
+        }
+        return state;
+    }
+
+}
@@ -0,0 +1,78 @@
+package xyz.joseyamut.cli;
+
+import xyz.joseyamut.record.GameRecorder;
+import xyz.joseyamut.record.SolutionExporter;
+import xyz.joseyamut.solver.IterativeSolver;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+/**
+ * Writes the optimal solution as a game recording, with no pauses between
+ * moves, so it can be replayed or validated like a played game. With
+ * {@code --packed} only the moves are written, by several threads at once,
+ * which reaches {@link SolutionExporter#MAX_DISKS} disks.
+ */
+public class ExportCommand implements Command {
+
+    // A move takes 3 bits and a one byte pause, so the 2^30 - 1 moves of 30
+    // disks take 1.5 GB, the most a recording's single mapping can hold
+    private static final int MAX_DISKS = 30;
+
+    @Override
+    public String name() {
+        return "export";
+    }
+
+    @Override
+    public String usage() {
+        return "export <disks> <file> [--packed] [--threads=<cores>]";
+    }
+
+    @Override
+    public int run(Arguments args, PrintStream out) throws IOException, InterruptedException {
+        int disks = args.intPositional(0, "disks");
+        Path file = Path.of(args.positional(1, "file"));
+        if (args.flag("packed")) {
+            return exportPacked(args, disks, file, out);
+        }
+        if (disks < 1 || disks > MAX_DISKS) {
+            throw new UsageException("<disks> must be between 1 and " + MAX_DISKS);
+        }
+
+        long startedAt = System.currentTimeMillis();
+        try (GameRecorder recorder = new GameRecorder(file, disks, startedAt)) {
+            IterativeSolver.solve(disks, (disk, from, to) -> {
+                try {
+                    recorder.append(from, to, startedAt);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.println(file + ": " + recorder.moveCount() + " moves with " + disks + " disks");
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return 0;
+    }
+
+    private static int exportPacked(Arguments args, int disks, Path file, PrintStream out)
+            throws IOException, InterruptedException {
+        if (disks < 1 || disks > SolutionExporter.MAX_DISKS) {
+            throw new UsageException("<disks> must be between 1 and " + SolutionExporter.MAX_DISKS);
+        }
+        int threads = args.intOption("threads", Runtime.getRuntime().availableProcessors());
+        if (threads < 1) {
+            throw new UsageException("--threads must be at least 1");
+        }
+
+        long start = System.nanoTime();
+        long checksum = SolutionExporter.export(file, disks, threads);
+        out.printf("%s: %d moves with %d disks in %.1f ms, checksum %016x%n", file,
+                IterativeSolver.moveCount(disks), disks, (System.nanoTime() - start) / 1e6, checksum);
+        return 0;
+    }
+
+}
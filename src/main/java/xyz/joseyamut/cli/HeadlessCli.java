@@ -0,0 +1,76 @@
+package xyz.joseyamut.cli;
+
+import lombok.extern.slf4j.Slf4j;
+import xyz.joseyamut.util.StartupProbe;
+
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Entry point of {@code --headless}: runs one subcommand and returns its exit
+ * code. Nothing reachable from here loads AWT or Swing, so it starts quickly
+ * and runs without a display.
+ */
+@Slf4j
+public class HeadlessCli {
+
+    public static final String FLAG = "--headless";
+
+    private static final Map<String, Command> commands = new LinkedHashMap<>();
+
+    static {
+        register(new SolveCommand());
+        register(new ValidateCommand());
+        register(new ScoreCommand());
+        register(new BenchCommand());
+        register(new ExploreCommand());
+        register(new ExportCommand());
+        register(new ServeCommand());
+        register(new LoadCommand());
+    }
+
+    private static void register(Command command) {
+        commands.put(command.name(), command);
+    }
+
+    public static int run(String[] args) {
+        // Anything that still reaches for AWT must not look for a display
+        System.setProperty("java.awt.headless", "true");
+        if (args.length == 0 || !commands.containsKey(args[0])) {
+            printUsage(args.length == 0 ? null : "Unknown command: " + args[0]);
+            return 2;
+        }
+
+        Command command = commands.get(args[0]);
+        PrintStream out = new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 1 << 16));
+        try {
+            StartupProbe.report("cli");
+            return command.run(new Arguments(Arrays.asList(args).subList(1, args.length)), out);
+        } catch (UsageException e) {
+            System.err.println(e.getMessage());
+            System.err.println("usage: " + FLAG + " " + command.usage());
+            return 2;
+        } catch (Exception e) {
+            log.error("{} failed: {}", command.name(), e.toString());
+            return 1;
+        } finally {
+            out.flush();
+        }
+    }
+
+    private static void printUsage(String error) {
+        if (error != null) {
+            System.err.println(error);
+        }
+        System.err.println("usage:");
+        for (Command command : commands.values()) {
+            System.err.println("  " + FLAG + " " + command.usage());
+        }
+    }
+
+}
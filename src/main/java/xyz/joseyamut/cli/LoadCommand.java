@@ -0,0 +1,64 @@
+package xyz.joseyamut.cli;
+
+import xyz.joseyamut.server.GameServer;
+import xyz.joseyamut.server.LoadGenerator;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+
+/**
+ * Plays many games at once against a game server on loopback, one connection
+ * per game. Without {@code --port} it starts its own server in the process.
+ */
+public class LoadCommand implements Command {
+
+    @Override
+    public String name() {
+        return "load";
+    }
+
+    @Override
+    public String usage() {
+        return "load [--clients=10000] [--disks=8] [--pegs=3] [--port=<in process>] [--host=127.0.0.1]";
+    }
+
+    @Override
+    public int run(Arguments args, PrintStream out) throws IOException, InterruptedException {
+        int clients = args.intOption("clients", 10000);
+        int disks = args.intOption("disks", 8);
+        int pegs = args.intOption("pegs", 3);
+        if (clients < 1) {
+            throw new UsageException("--clients must be at least 1");
+        }
+        // A million round trips per client is already far more than a load test needs
+        if (disks < 1 || disks > 20) {
+            throw new UsageException("--disks must be between 1 and 20");
+        }
+        if (pegs < 3 || pegs > 4) {
+            throw new UsageException("--pegs must be 3 or 4");
+        }
+
+        String host = args.option("host", "127.0.0.1");
+        GameServer server = null;
+        InetSocketAddress address;
+        if (args.flag("port")) {
+            address = new InetSocketAddress(host, args.intOption("port", ServeCommand.DEFAULT_PORT));
+        } else {
+            server = new GameServer(new InetSocketAddress(host, 0), Math.max(clients, 1024));
+            server.start();
+            address = server.address();
+        }
+
+        try {
+            LoadGenerator.Report report = new LoadGenerator(address, disks, pegs).run(clients);
+            out.println(report);
+            return report.failed() == 0 ? 0 : 1;
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+        }
+    }
+
+}
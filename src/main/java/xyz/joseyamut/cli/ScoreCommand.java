@@ -0,0 +1,65 @@
+package xyz.joseyamut.cli;
+
+import xyz.joseyamut.validate.BatchValidator;
+import xyz.joseyamut.validate.GameScore;
+import xyz.joseyamut.validate.Violation;
+
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scores recordings against the shortest solution, one line per file, and
+ * a summary of the batch. Exits with 1 when any of them is unreadable or
+ * holds an illegal move.
+ */
+public class ScoreCommand implements Command {
+
+    @Override
+    public String name() {
+        return "score";
+    }
+
+    @Override
+    public String usage() {
+        return "score <file>... [--threads=<cores>]";
+    }
+
+    @Override
+    public int run(Arguments args, PrintStream out) throws InterruptedException {
+        if (args.size() == 0) {
+            throw new UsageException("Missing <file>");
+        }
+        int threads = args.intOption("threads", Runtime.getRuntime().availableProcessors());
+        if (threads < 1) {
+            throw new UsageException("--threads must be at least 1");
+        }
+
+        List<Path> files = new ArrayList<>(args.size());
+        for (String file : args.positionals()) {
+            files.add(Path.of(file));
+        }
+
+        long start = System.nanoTime();
+        List<GameScore> scores = BatchValidator.scoreAll(files, threads);
+        long elapsed = System.nanoTime() - start;
+
+        int invalid = 0;
+        int optimal = 0;
+        long moves = 0;
+        for (GameScore score : scores) {
+            out.println(score);
+            if (score.violation() != Violation.NONE) {
+                invalid++;
+            } else if (score.isOptimal()) {
+                optimal++;
+            }
+            moves += score.moves();
+        }
+        out.printf("%d games, %d optimal, %d invalid; %d moves in %.1f ms, %.0f moves/s%n",
+                scores.size(), optimal, invalid, moves, elapsed / 1e6, moves * 1e9 / elapsed);
+        return invalid == 0 ? 0 : 1;
+    }
+
+}
@@ -0,0 +1,45 @@
+package xyz.joseyamut.cli;
+
+import xyz.joseyamut.server.GameServer;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+
+/**
+ * Runs the game server until the process is stopped.
+ */
+public class ServeCommand implements Command {
+
+    static final int DEFAULT_PORT = 7070;
+
+    @Override
+    public String name() {
+        return "serve";
+    }
+
+    @Override
+    public String usage() {
+        return "serve [--port=" + DEFAULT_PORT + "] [--host=127.0.0.1] [--sessions=65536]";
+    }
+
+    @Override
+    public int run(Arguments args, PrintStream out) throws IOException {
+        int port = args.intOption("port", DEFAULT_PORT);
+        int capacity = args.intOption("sessions", 65536);
+        if (port < 0 || port > 65535) {
+            throw new UsageException("--port must be between 0 and 65535");
+        }
+        if (capacity < 1) {
+            throw new UsageException("--sessions must be at least 1");
+        }
+
+        try (GameServer server = new GameServer(new InetSocketAddress(args.option("host", "127.0.0.1"), port), capacity)) {
+            out.println("Serving up to " + capacity + " games on " + server.address());
+            out.flush();
+            server.serve();
+        }
+        return 0;
+    }
+
+}
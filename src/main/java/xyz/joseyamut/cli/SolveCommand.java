@@ -0,0 +1,81 @@
+package xyz.joseyamut.cli;
+
+import xyz.joseyamut.rules.RuleVariant;
+import xyz.joseyamut.rules.RuleVariants;
+import xyz.joseyamut.solver.FrameStewart;
+import xyz.joseyamut.solver.FrameStewartSolver;
+import xyz.joseyamut.solver.IterativeSolver;
+import xyz.joseyamut.solver.Move;
+import xyz.joseyamut.solver.MoveConsumer;
+
+import java.io.PrintStream;
+
+/**
+ * Prints the moves of the solution, one per line, or only their number. The
+ * rule variants other than the classic one are played on three pegs.
+ */
+public class SolveCommand implements Command {
+
+    @Override
+    public String name() {
+        return "solve";
+    }
+
+    @Override
+    public String usage() {
+        return "solve <disks> [--pegs=3] [--variant=classic|cyclic|adjacent|bicolour] [--count]";
+    }
+
+    @Override
+    public int run(Arguments args, PrintStream out) {
+        int disks = args.intPositional(0, "disks");
+        int pegs = args.intOption("pegs", 3);
+        RuleVariant variant;
+        try {
+            variant = RuleVariants.byName(args.option("variant", RuleVariants.CLASSIC.name()));
+        } catch (IllegalArgumentException e) {
+            throw new UsageException(e.getMessage());
+        }
+        if (variant != RuleVariants.CLASSIC) {
+            return solveVariant(variant, disks, pegs, args.flag("count"), out);
+        }
+        if (disks < 0 || disks > IterativeSolver.MAX_DISKS) {
+            throw new UsageException("<disks> must be between 0 and " + IterativeSolver.MAX_DISKS);
+        }
+        if (pegs < FrameStewart.MIN_PEGS) {
+            throw new UsageException("--pegs must be at least " + FrameStewart.MIN_PEGS);
+        }
+
+        long moves = pegs == 3 ? IterativeSolver.moveCount(disks) : FrameStewart.moveCount(disks, pegs);
+        if (args.flag("count")) {
+            out.println(Long.toUnsignedString(moves));
+            return 0;
+        }
+
+        MoveConsumer print = (disk, from, to) -> out.println(Move.toString(Move.pack(disk, from, to)));
+        if (pegs == 3) {
+            IterativeSolver.solve(disks, print);
+        } else {
+            FrameStewartSolver.solve(disks, pegs, print);
+        }
+        return 0;
+    }
+
+    private static int solveVariant(RuleVariant variant, int disks, int pegs, boolean count, PrintStream out) {
+        if (disks < 0 || disks > variant.maxDisks()) {
+            throw new UsageException("<disks> must be between 0 and " + variant.maxDisks()
+                    + " with the " + variant.name() + " rules");
+        }
+        if (!variant.supportsPegs(pegs)) {
+            throw new UsageException("The " + variant.name() + " rules are played on three pegs");
+        }
+
+        if (count) {
+            out.println(Long.toUnsignedString(variant.moveCount(disks)));
+            return 0;
+        }
+        variant.solve(disks, (disk, from, to) -> out.println(Move.toString(Move.pack(disk, from, to))));
+        return 0;
+    }
+
+}
@@ -0,0 +1,13 @@
+package xyz.joseyamut.cli;
+
+/**
+ * A command line that cannot be run as given; the message is shown with the
+ * usage of the command.
+ */
+public class UsageException extends RuntimeException {
+
+    public UsageException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,52 @@
+package xyz.joseyamut.cli;
+
+import xyz.joseyamut.validate.BatchValidator;
+import xyz.joseyamut.validate.ValidationResult;
+
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks recordings and prints one line per file. Exits with 1 when any of
+ * them is not a legal, finished game.
+ */
+public class ValidateCommand implements Command {
+
+    @Override
+    public String name() {
+        return "validate";
+    }
+
+    @Override
+    public String usage() {
+        return "validate <file>... [--threads=<cores>]";
+    }
+
+    @Override
+    public int run(Arguments args, PrintStream out) throws InterruptedException {
+        if (args.size() == 0) {
+            throw new UsageException("Missing <file>");
+        }
+        int threads = args.intOption("threads", Runtime.getRuntime().availableProcessors());
+        if (threads < 1) {
+            throw new UsageException("--threads must be at least 1");
+        }
+
+        List<Path> files = new ArrayList<>(args.size());
+        for (String file : args.positionals()) {
+            files.add(Path.of(file));
+        }
+
+        int invalid = 0;
+        for (ValidationResult result : BatchValidator.validateAll(files, threads)) {
+            out.println(result);
+            if (!result.isValid()) {
+                invalid++;
+            }
+        }
+        return invalid == 0 ? 0 : 1;
+    }
+
+}
@@ -1,47 +1,176 @@
 package xyz.joseyamut.gfx;
 
+import lombok.extern.slf4j.Slf4j;
+import xyz.joseyamut.metrics.RenderMetrics;
+
 import javax.swing.*;
 import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 
+/**
+ * Component whose frames are drawn off the EDT. {@link #renderFrame(Rectangle)}
+ * captures a {@link Scene} on the EDT and publishes it through one atomic
+ * reference; a render thread draws the newest scene into a
+ * {@link TripleBuffer} and asks for a repaint, and painting only copies the
+ * newest finished frame to the screen. Input is never held up by a heavy
+ * frame, and scenes captured faster than they can be drawn are skipped.
+ * When there is no memory left for the frame images they are dropped and
+ * the component is painted with a plain fill until a frame can be drawn
+ * again.
+ */
+@Slf4j
 public class Backstage extends JComponent {
 
-    Image canvas;
-    Graphics g;
+    // Every component's frames go through the static SpriteCache, so a render
+    // thread still finishing after removeNotify never draws beside the next one
+    private static final Object drawLock = new Object();
+
+    private final TripleBuffer frames = new TripleBuffer();
+    // Newest scene not yet drawn
+    private final AtomicReference<FrameRequest> pending = new AtomicReference<>();
+    private volatile Thread renderThread;
+    // Set after an OutOfMemoryError, until the next frame is drawn
+    private volatile boolean unbuffered;
+
+    /**
+     * What the component shows now. Called on the EDT; the result must not
+     * change afterwards.
+     */
+    protected Scene captureScene() {
+        return new Blank(Math.max(getWidth(), 1), Math.max(getHeight(), 1));
+    }
+
+    /**
+     * Captures the scene and has it drawn. Once drawn, {@code area} is
+     * repainted, or the whole component when it is null.
+     */
+    public void renderFrame(Rectangle area) {
+        Scene scene = captureScene();
+        FrameRequest request;
+        FrameRequest skipped;
+        do {
+            // A request the render thread never took still needs its area shown
+            skipped = pending.get();
+            Rectangle damage = null;
+            if (area != null && (skipped == null || skipped.damage() != null)) {
+                damage = new Rectangle(area);
+                if (skipped != null) {
+                    damage.add(skipped.damage());
+                }
+            }
+            request = new FrameRequest(scene, damage);
+        } while (!pending.compareAndSet(skipped, request));
+
+        Thread thread = renderThread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    @Override
+    public void paint(Graphics g) {
+        if (unbuffered) {
+            g.setColor(Color.BLACK);
+            g.fillRect(0, 0, getWidth(), getHeight());
+            return;
+        }
+        BufferedImage frame = frames.front();
+        if (frame == null) {
+            g.setColor(Color.BLACK);
+            g.fillRect(0, 0, getWidth(), getHeight());
+        } else {
+            g.drawImage(frame, 0, 0, null);
+        }
+        // First shown or resized, a frame at the new size is on its way
+        if ((frame == null || frame.getWidth() != Math.max(getWidth(), 1)
+                || frame.getHeight() != Math.max(getHeight(), 1))
+                && pending.get() == null) {
+            renderFrame(null);
+        }
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        Thread thread = new Thread(this::renderLoop, "toh-render");
+        thread.setDaemon(true);
+        renderThread = thread;
+        thread.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        Thread thread = renderThread;
+        renderThread = null;
+        if (thread != null) {
+            // Wakes the thread up to see it is done; it ends after the frame in hand
+            LockSupport.unpark(thread);
+        }
+        super.removeNotify();
+    }
+
+    private void renderLoop() {
+        Thread self = Thread.currentThread();
+        while (renderThread == self) {
+            FrameRequest request = pending.getAndSet(null);
+            if (request == null) {
+                LockSupport.park(this);
+                continue;
+            }
 
-    public void createCanvas() {
-        canvas = null;
+            long frameStart = RenderMetrics.frameStart();
+            Scene scene = request.scene();
+            try {
+                synchronized (drawLock) {
+                    draw(scene);
+                }
+                unbuffered = false;
+            } catch (OutOfMemoryError e) {
+                frames.clear();
+                SpriteCache.invalidate();
+                unbuffered = true;
+                log.error("No memory for a {}x{} frame, drawing unbuffered", scene.width(), scene.height());
+            }
+            RenderMetrics.frameEnd(frameStart);
+
+            Rectangle damage = request.damage();
+            if (damage == null) {
+                repaint();
+            } else {
+                repaint(damage.x, damage.y, damage.width, damage.height);
+            }
+        }
+    }
+
+    private void draw(Scene scene) {
+        BufferedImage image = frames.back(Math.max(scene.width(), 1), Math.max(scene.height(), 1));
+        Graphics2D g2d = image.createGraphics();
         try {
-            canvas = createImage(getSize().width, getSize().height);
-            Graphics2D g2d = (Graphics2D) canvas.getGraphics();
             g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
             g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
             g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
-            g = g2d;
-        } catch (OutOfMemoryError e) {
-            canvas = null;
-            g = null;
+            scene.draw(g2d);
+        } catch (RuntimeException e) {
+            log.error("Frame failed: {}", e.toString());
+        } finally {
+            g2d.dispose();
         }
+        frames.publish();
     }
 
-    public void graphics(Graphics g) {
-        g.clearRect(0, 0, getSize().width, getSize().height);
-        g.setColor(Color.BLACK); // base color
-        g.fillRect(0, 0, getSize().width, getSize().height);
+    private record FrameRequest(Scene scene, Rectangle damage) {
     }
 
-    public synchronized void paint(Graphics g) {
-        createCanvas();
-        if (canvas != null) {
-            graphics(this.g);
-        }
+    private record Blank(int width, int height) implements Scene {
 
-        if (canvas == null) {
-            g.clearRect(0, 0, getSize().width, getSize().height);
-            g.fillRect(0, 0, getSize().width, getSize().height);
-            return;
+        @Override
+        public void draw(Graphics2D g) {
+            g.setColor(Color.BLACK); // base color
+            g.fillRect(0, 0, width, height);
         }
 
-        g.drawImage(canvas, 0, 0, this);
     }
 
 }
@@ -0,0 +1,107 @@
+package xyz.joseyamut.gfx;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * Paces the frames of a {@link Backstage} on the EDT. Frames are only produced after
+ * {@link #requestFrame()} and at most at the target rate, so an unchanged
+ * scene costs nothing; a separate one second tick keeps clocks on screen
+ * current while {@link #startTicking()} is in effect. Changes confined to a
+ * region can ask for just that region to be repainted.
+ */
+public class RenderClock {
+
+    public static final int DEFAULT_TARGET_FPS = 60;
+
+    private final Backstage component;
+    private final Timer frameTimer;
+    private final Timer secondTimer;
+    private boolean dirty;
+    // Region to repaint when the whole scene is not dirty
+    private final Rectangle dirtyArea = new Rectangle();
+
+    public RenderClock(Backstage component) {
+        this(component, Integer.getInteger("toh.fps", DEFAULT_TARGET_FPS));
+    }
+
+    public RenderClock(Backstage component, int targetFps) {
+        this.component = component;
+        frameTimer = new Timer(frameDelay(targetFps), e -> onFrame());
+        frameTimer.setCoalesce(true);
+        secondTimer = new Timer(1000, e -> component.renderFrame(null));
+        secondTimer.setCoalesce(true);
+    }
+
+    public void setTargetFps(int targetFps) {
+        frameTimer.setDelay(frameDelay(targetFps));
+    }
+
+    /**
+     * Marks the scene as changed; it is rendered on the next frame tick.
+     */
+    public void requestFrame() {
+        dirty = true;
+        dirtyArea.setSize(0, 0);
+        startFrames();
+    }
+
+    /**
+     * Marks only the given region as changed. Regions requested before the
+     * next frame are merged into their bounding rectangle.
+     */
+    public void requestFrame(Rectangle area) {
+        if (!dirty) {
+            if (dirtyArea.isEmpty()) {
+                dirtyArea.setBounds(area);
+            } else {
+                dirtyArea.add(area);
+            }
+        }
+        startFrames();
+    }
+
+    private void startFrames() {
+        if (!frameTimer.isRunning()) {
+            frameTimer.start();
+        }
+    }
+
+    public void startTicking() {
+        if (!secondTimer.isRunning()) {
+            secondTimer.start();
+        }
+    }
+
+    public void stopTicking() {
+        secondTimer.stop();
+    }
+
+    public void stop() {
+        frameTimer.stop();
+        secondTimer.stop();
+        dirty = false;
+        dirtyArea.setSize(0, 0);
+    }
+
+    private void onFrame() {
+        if (dirty) {
+            dirty = false;
+            component.renderFrame(null);
+        } else if (!dirtyArea.isEmpty()) {
+            component.renderFrame(dirtyArea);
+            dirtyArea.setSize(0, 0);
+        } else {
+            // Nothing changed since the last frame, idle until the next request
+            frameTimer.stop();
+        }
+    }
+
+    private static int frameDelay(int targetFps) {
+        if (targetFps <= 0) {
+            throw new IllegalArgumentException("Target FPS must be positive: " + targetFps);
+        }
+        return Math.max(1, 1000 / targetFps);
+    }
+
+}
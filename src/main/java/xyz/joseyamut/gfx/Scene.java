@@ -0,0 +1,17 @@
+package xyz.joseyamut.gfx;
+
+import java.awt.*;
+
+/**
+ * Everything needed to draw one frame, captured on the EDT and drawn on the
+ * render thread. Implementations never change once captured.
+ */
+public interface Scene {
+
+    int width();
+
+    int height();
+
+    void draw(Graphics2D g);
+
+}
@@ -0,0 +1,94 @@
+package xyz.joseyamut.gfx;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.function.BiConsumer;
+
+/**
+ * Pre-rendered images for the parts of a frame that only change with the
+ * {@link StageLayout}: the static background (base, poles and labels) and one
+ * sprite per disk width and colour. Both are built lazily on first use and
+ * rebuilt when a different layout asks for them, or after
+ * {@link #invalidate()}. Only render threads draw from the cache, one at a
+ * time (see {@link Backstage}); other threads may invalidate it.
+ */
+public class SpriteCache {
+
+    // Sprites get a one pixel margin for the anti-aliased outline
+    private static final int SPRITE_MARGIN = 1;
+
+    private static BufferedImage background;
+    private static StageLayout backgroundLayout;
+
+    // Indexed by disk * elements + colour index
+    private static BufferedImage[] diskSprites = new BufferedImage[0];
+    private static StageLayout spriteLayout;
+    private static volatile boolean invalidated;
+
+    public static BufferedImage background(StageLayout layout, BiConsumer<Graphics2D, StageLayout> painter) {
+        if (invalidated) {
+            invalidated = false;
+            clear();
+        }
+        if (background == null || !layout.equals(backgroundLayout)) {
+            int width = layout.width();
+            int height = layout.height();
+            background = new BufferedImage(Math.max(width, 1), Math.max(height, 1), BufferedImage.TYPE_INT_RGB);
+            Graphics2D g2d = antialiased(background.createGraphics());
+            g2d.setColor(Color.BLACK); // base color
+            g2d.fillRect(0, 0, width, height);
+            painter.accept(g2d, layout);
+            g2d.dispose();
+
+            backgroundLayout = layout;
+        }
+        return background;
+    }
+
+    public static void drawDisk(Graphics g, StageLayout layout, int disk, int colourIndex,
+                                int diskPointX, int diskPointY) {
+        g.drawImage(diskSprite(layout, disk, colourIndex),
+                diskPointX - SPRITE_MARGIN, diskPointY - SPRITE_MARGIN, null);
+    }
+
+    private static BufferedImage diskSprite(StageLayout layout, int disk, int colourIndex) {
+        int elements = layout.elements();
+        if (!layout.equals(spriteLayout)) {
+            diskSprites = new BufferedImage[elements * elements];
+            spriteLayout = layout;
+        }
+
+        int index = disk * elements + colourIndex;
+        BufferedImage sprite = diskSprites[index];
+        if (sprite == null) {
+            int diskWidth = layout.diskWidth(disk);
+            sprite = new BufferedImage(diskWidth + 1 + 2 * SPRITE_MARGIN,
+                    layout.diskHeight() + 1 + 2 * SPRITE_MARGIN,
+                    BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g2d = antialiased(sprite.createGraphics());
+            StackDisplayUpdater.paintDisk(g2d, layout, SPRITE_MARGIN, SPRITE_MARGIN, diskWidth, colourIndex);
+            g2d.dispose();
+            diskSprites[index] = sprite;
+        }
+        return sprite;
+    }
+
+    public static void invalidate() {
+        invalidated = true;
+    }
+
+    private static void clear() {
+        background = null;
+        backgroundLayout = null;
+        diskSprites = new BufferedImage[0];
+        spriteLayout = null;
+    }
+
+    private static Graphics2D antialiased(Graphics2D g2d) {
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        return g2d;
+    }
+
+}
@@ -1,70 +1,136 @@
 package xyz.joseyamut.gfx;
 
 import xyz.joseyamut.util.FixedStack;
+import xyz.joseyamut.util.GameState;
 
 import java.awt.*;
 
 public class StackDisplayUpdater {
 
+    // Colour index no stack position uses, for the even disks of the bicolour game
+    static final int SECOND_COLOUR = 0;
+    private static final Color secondColour = new Color(255, 126, 64);
+
     public static Rectangle draw(Graphics g,
+                                 StageLayout layout,
                                  FixedStack stack,
-                                 int elements,
-                                 int xPointPole) {
-        if (!stack.isEmpty()) {
-            int diskPointX;
-            int diskPointY;
-            int diskWidth;
-            int[] disks = new int[elements];
-            int stackSize = stack.size();
-            FixedStack shiftStack = new FixedStack(stackSize);
+                                 int peg) {
+        return draw(g, layout, stack, peg, new Rectangle());
+    }
 
-            for (int i = 0; i < stackSize; i++) {
-                shiftStack.push(((stack.pop())));
+    // Reads the stack in place (bottom first) and fills the given area
+    public static Rectangle draw(Graphics g,
+                                 StageLayout layout,
+                                 FixedStack stack,
+                                 int peg,
+                                 Rectangle area) {
+        int stackSize = stack.size();
+        int lastRow = -1;
+        for (int i = 0; i < stackSize; i++) {
+            if (layout.isBanded()) {
+                lastRow = drawBand(g, layout, stack.get(i), stackSize - i, i + 1, peg, lastRow);
+            } else {
+                drawDisk(g, layout, stack.get(i), stackSize - i, i + 1, peg);
             }
+        }
+        return setArea(g, layout, peg, area);
+    }
+
+    public static Rectangle draw(Graphics g,
+                                 StageLayout layout,
+                                 GameState state,
+                                 int peg,
+                                 int liftedDisk) {
+        return draw(g, layout, state, peg, liftedDisk, false, new Rectangle());
+    }
+
+    public static Rectangle draw(Graphics g,
+                                 StageLayout layout,
+                                 GameState state,
+                                 int peg,
+                                 int liftedDisk,
+                                 boolean bicolour) {
+        return draw(g, layout, state, peg, liftedDisk, bicolour, new Rectangle());
+    }
 
-            for (int j = stackSize; j > 0; j--) {
-                stack.push(shiftStack.top());
-                disks[j] = shiftStack.pop();
-                diskPointX = xPointPole - (disks[j] * 10);
-                diskPointY = 240 - (stack.size() * Stage.diskHeight);
-                diskWidth = disks[j] * Stage.diskHeight;
+    // Shaded by height on the peg, or by the parity of the disk when bicolour
+    public static Rectangle draw(Graphics g,
+                                 StageLayout layout,
+                                 GameState state,
+                                 int peg,
+                                 int liftedDisk,
+                                 boolean bicolour,
+                                 Rectangle area) {
+        // The lifted disk is the top one and is drawn by the stage while it floats
+        int stackSize = state.size(peg);
+        if (liftedDisk != 0 && state.topDisk(peg) == liftedDisk) {
+            stackSize--;
+        }
 
-                g.setColor(Color.DARK_GRAY);
-                g.drawRoundRect(diskPointX, diskPointY,
-                        diskWidth, Stage.diskHeight,
-                        Stage.diskArc, Stage.diskArc);
-                g.setColor(getDiskColor(j));
-                g.fillRoundRect(diskPointX, diskPointY,
-                        diskWidth, Stage.diskHeight,
-                        Stage.diskArc, Stage.diskArc);
+        int disk = state.bottomDisk(peg);
+        int lastRow = -1;
+        for (int i = 1; i <= stackSize; i++) {
+            int colourIndex = !bicolour ? stackSize - i + 1 : (disk & 1) == 1 ? 1 : SECOND_COLOUR;
+            if (layout.isBanded()) {
+                lastRow = drawBand(g, layout, disk, colourIndex, i, peg, lastRow);
+            } else {
+                drawDisk(g, layout, disk, colourIndex, i, peg);
             }
+            disk = state.diskAbove(peg, disk);
+        }
+        return layout.stackArea(peg, area);
+    }
+
+    private static void drawDisk(Graphics g, StageLayout layout, int disk,
+                                 int colourIndex, int position, int peg) {
+        int diskPointX = layout.xPointPole(peg) - layout.diskWidth(disk) / 2;
+        SpriteCache.drawDisk(g, layout, disk, colourIndex, diskPointX, layout.diskY(position));
+    }
+
+    // Disks sharing a pixel row are drawn once, as the widest (lowest) of them,
+    // so a stack never takes more fills than it has rows
+    private static int drawBand(Graphics g, StageLayout layout, int disk,
+                                int colourIndex, int position, int peg, int lastRow) {
+        int row = layout.bandRow(position);
+        if (row <= lastRow) {
+            return lastRow;
         }
-        return setArea(g, xPointPole, elements);
+        int rows = Math.max(layout.bandRow(position + 1) - row, 1);
+        int diskWidth = layout.diskWidth(disk);
+        g.setColor(layout.diskColour(colourIndex));
+        g.fillRect(layout.xPointPole(peg) - diskWidth / 2, layout.baseY() - row - rows, diskWidth, rows);
+        return row + rows - 1;
+    }
+
+    static void paintDisk(Graphics g, StageLayout layout, int diskPointX, int diskPointY,
+                          int diskWidth, int colourIndex) {
+        g.setColor(Color.DARK_GRAY);
+        g.drawRoundRect(diskPointX, diskPointY,
+                diskWidth, layout.diskHeight(),
+                layout.diskArc(), layout.diskArc());
+        g.setColor(layout.diskColour(colourIndex));
+        g.fillRoundRect(diskPointX, diskPointY,
+                diskWidth, layout.diskHeight(),
+                layout.diskArc(), layout.diskArc());
     }
 
-    private static Rectangle setArea(Graphics g, int xPointPole,
-                                     int elements) {
-        int widestDiskWidth = (elements - 1) * Stage.diskHeight;
-        int xPointArea = xPointPole - (widestDiskWidth / 2);
-        Rectangle stackArea = new Rectangle(xPointArea - 2, yPointPole(elements, Stage.diskHeight),
-                widestDiskWidth + 2, elements * Stage.diskHeight);
+    private static Rectangle setArea(Graphics g, StageLayout layout,
+                                     int peg, Rectangle area) {
+        Rectangle stackArea = layout.stackArea(peg, area);
         g.setColor(Color.BLACK);
         g.drawRect(stackArea.x, stackArea.y, stackArea.width, stackArea.height);
         return stackArea;
     }
 
-    public static int yPointPole(int elements, int diskHeight) {
-        return switch (elements - 1) {
-            case 8 -> (elements - 6) * diskHeight;
-            case 7 -> (elements - 4) * diskHeight;
-            case 6 -> (elements - 2) * diskHeight;
-            case 5 -> elements * diskHeight;
-            default -> (elements + 2) * diskHeight; // 4
-        };
-    }
-
-    private static Color getDiskColor(int diskWeight) {
-        int modifier = (diskWeight + 1) * 14;
-        return new Color(0,255 - modifier,0);
+    // Every colour index a stack of up to elements - 1 disks uses, built once per layout
+    static Color[] palette(int elements) {
+        Color[] palette = new Color[Math.max(elements, 2)];
+        palette[SECOND_COLOUR] = secondColour;
+        for (int diskWeight = 1; diskWeight < palette.length; diskWeight++) {
+            // Same shades as ever up to 15 disks, spread over the same range beyond
+            int modifier = (diskWeight + 1) * 14 * 16 / Math.max(elements, 16);
+            palette[diskWeight] = new Color(0,255 - modifier,0);
+        }
+        return palette;
     }
 }
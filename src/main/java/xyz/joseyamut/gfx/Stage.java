@@ -1,125 +1,217 @@
 package xyz.joseyamut.gfx;
 
 import lombok.extern.slf4j.Slf4j;
-import xyz.joseyamut.util.ClickedStackArea;
+import xyz.joseyamut.metrics.RenderMetrics;
+import xyz.joseyamut.record.GameRecorder;
+import xyz.joseyamut.record.GameRecording;
+import xyz.joseyamut.rules.RuleVariant;
+import xyz.joseyamut.rules.RuleVariants;
+import xyz.joseyamut.solver.DistanceOracle;
+import xyz.joseyamut.solver.Move;
+import xyz.joseyamut.solver.MoveQueue;
+import xyz.joseyamut.solver.OptimalityTracker;
+import xyz.joseyamut.solver.MoveConsumer;
+import xyz.joseyamut.solver.PositionSolver;
+import xyz.joseyamut.stats.GameResult;
+import xyz.joseyamut.stats.StatsStore;
 import xyz.joseyamut.util.FixedStack;
+import xyz.joseyamut.util.GameState;
+import xyz.joseyamut.util.MoveHistory;
+import xyz.joseyamut.util.StackAreaIndex;
+import xyz.joseyamut.util.VirtualThreads;
+import xyz.joseyamut.validate.Violation;
 
+import javax.swing.Timer;
 import java.awt.*;
 import java.awt.event.*;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Map;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 @Slf4j
 public class Stage extends Backstage {
 
     private int elements;
-    // Stacks
-    private FixedStack initialStack; // Stack at X location
-    private FixedStack yStack;
-    private FixedStack zStack;
-    private FixedStack topDisk;
-    private Map<String, FixedStack> stackMap;
+    private final int pegs;
+    private final int targetPeg;
+    private final RuleVariant rules;
+    // Pegs X/Y/Z (X, Y1, Y2, Z with four) and the disk lifted from the source peg
+    private GameState state;
+    private int srcPeg;
+    private int dstPeg;
+    private int floatingDisk;
+    private long moves;
+    private final MoveHistory history = new MoveHistory();
+    // Distance to the goal and wasted moves, null with four pegs
+    private final OptimalityTracker optimality;
+    // Suggested move, -1 when no hint is shown
+    private int hintFrom = -1;
+    private int hintTo = -1;
+    // Recording and replay
+    private Path recordingDirectory;
+    private GameRecorder recorder;
+    private GameRecording.Cursor replayCursor;
+    private Timer replayTimer;
+    private double replaySpeed;
+    private boolean replaying;
+    private boolean replayFailed;
+    // Auto-solve, moves streamed from a solver thread
+    private MoveQueue autoSolveQueue;
+    private Timer autoSolveTimer;
+    private int[] autoSolveBatch;
+    private double autoSolveSpeed;
+    private double autoSolveDue;
+    private long autoSolveLastTick;
+    private boolean autoSolving;
+    // Move being animated at low speed, -1 when none
+    private int animatedMove = -1;
+    private long animationStart;
     // Mouse listener, stack clickable areas
     private MouseListener mouseListener;
     private MouseMotionListener mouseMotionListener;
-    private Rectangle xStackArea;
-    private Rectangle yStackArea;
-    private Rectangle zStackArea;
+    private final Rectangle[] stackAreas;
+    private final StackAreaIndex stackAreaIndex = new StackAreaIndex();
+    // Where the dragged disk was last drawn, and the region a drag repaints
+    private final Rectangle floatingDiskArea = new Rectangle();
+    private final Rectangle dragRepaintArea = new Rectangle();
     private int xPointMouse;
     private int yPointMouse;
     private boolean mouseActionWithinBounds;
-    // Status text and duration
+    // Status text and duration, timed with System.nanoTime()
     private String status;
     private boolean started;
     private long timeStarted;
     private long timeElapsed;
-    // Disks, poles and base
+    // Finished games are saved once, and never replays or auto-solves
+    private StatsStore statsStore;
+    private boolean resultSaved;
+    private int invalidAttempts;
+    private long elapsedSecondsShown = -1;
+    private String formattedElapsedTime;
+    private boolean metricsOverlay;
+    private final RenderClock renderClock;
+    // Largest disk, shrunk by the layout when the canvas is too small for it
     public static final int diskArc = 12;
     public static final int diskHeight = 20;
-    private final int xPointPoleX = 98;
-    private final int xPointPoleY = 298;
-    private final int xPointPoleZ = 498;
-    // Mouse clicked stack container
-    private final String SRC_STACK_KEY = "SRC";
-    private final String DST_STACK_KEY = "DST";
+    private StageLayout layout;
+    private final String[] poleLabels;
+    private static final Cursor handCursor = Cursor.getPredefinedCursor(Cursor.HAND_CURSOR);
+    private static final Cursor defaultCursor = Cursor.getPredefinedCursor(Cursor.DEFAULT_CURSOR);
+    // Peg indexes within the game state
+    private static final int PEG_X = 0;
+    // Auto-solve pacing
+    private static final int AUTO_SOLVE_QUEUE_SIZE = 1 << 16;
+    private static final int AUTO_SOLVE_BATCH_SIZE = 4096;
+    private static final int AUTO_SOLVE_TICK_MILLIS = 16;
+    private static final long AUTO_SOLVE_TICK_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(12);
+    public static final double AUTO_SOLVE_MAX_ANIMATED_SPEED = 8;
+    // Fired with the old and new move count whenever it changes
+    public static final String MOVES_PROPERTY = "moves";
 
     public Stage(FixedStack initialStack) {
-        this.initialStack = initialStack;
+        this(initialStack, GameState.PEGS);
+    }
+
+    public Stage(FixedStack initialStack, int pegs) {
+        this(initialStack, pegs, RuleVariants.CLASSIC);
+    }
 
-        status = "";
+    public Stage(FixedStack initialStack, int pegs, RuleVariant rules) {
+        if (!rules.supportsPegs(pegs)) {
+            throw new IllegalArgumentException(rules.title() + " is not played on " + pegs + " pegs");
+        }
+        this.rules = rules;
+        status = rules == RuleVariants.CLASSIC ? "" : rules.title() + " rules.";
         started = false;
         timeStarted = 0;
         mouseActionWithinBounds = false;
         elements = initialStack.size();
 
-        yStack = new FixedStack(elements);
-        zStack = new FixedStack(elements);
-        topDisk = new FixedStack(1);
-        topDisk.push(initialStack.top());
-        stackMap = new HashMap<>();
+        // The initial stack is always a full tower at X
+        state = new GameState(elements, pegs);
+        srcPeg = dstPeg = -1;
+        floatingDisk = 0;
 
         elements += 1;
 
+        this.pegs = pegs;
+        targetPeg = pegs - 1;
+        // Distances are those of the classic three peg game
+        optimality = pegs == GameState.PEGS && rules == RuleVariants.CLASSIC
+                ? new OptimalityTracker(state.disks()) : null;
+        stackAreas = new Rectangle[pegs];
+        poleLabels = new String[pegs];
+        for (int peg = 0; peg < pegs; peg++) {
+            stackAreas[peg] = new Rectangle();
+            poleLabels[peg] = poleLabel(peg, pegs);
+        }
+
+        renderClock = new RenderClock(this);
         setMouseListener();
+        setComponentListener();
         setMouseMotionListener();
     }
 
     private void setMouseListener() {
-        stackMap.put(SRC_STACK_KEY, null);
-        stackMap.put(DST_STACK_KEY, null);
-
         mouseListener = new MouseAdapter() {
             @Override
             public void mousePressed(MouseEvent e) {
                 super.mousePressed(e);
-                setCursor(new Cursor(Cursor.HAND_CURSOR));
+                if (replaying || autoSolving) {
+                    return;
+                }
+                setCursor(handCursor);
 
-                mouseActionWithinBounds = ClickedStackArea.updateMapIfActionIsValid(SRC_STACK_KEY, stackMap,
-                        e.getX(), e.getY(),
-                        new ArrayList<>(Arrays.asList(xStackArea, yStackArea, zStackArea)),
-                        new ArrayList<>(Arrays.asList(initialStack, yStack, zStack)));
+                int peg = stackAreaIndex.indexOf(e.getX(), e.getY());
+                mouseActionWithinBounds = peg >= 0;
 
                 if (mouseActionWithinBounds) {
-                    if (!topDisk.isEmpty()) {
-                        topDisk.pop();
-                    }
-
-                    if (!stackMap.get(SRC_STACK_KEY).isEmpty()) {
-                        topDisk.push(stackMap.get(SRC_STACK_KEY).top());
-                        stackMap.get(SRC_STACK_KEY).pop();
-                    }
+                    srcPeg = peg;
+                    floatingDiskArea.setSize(0, 0);
+                    floatingDisk = state.topDisk(peg);
+                    RenderMetrics.movePressed();
                 }
+                renderClock.requestFrame();
             }
 
             @Override
             public void mouseReleased(MouseEvent e) {
                 super.mouseReleased(e);
-                setCursor(new Cursor(Cursor.DEFAULT_CURSOR));
+                if (replaying || autoSolving) {
+                    return;
+                }
+                setCursor(defaultCursor);
 
-                mouseActionWithinBounds = ClickedStackArea.updateMapIfActionIsValid(DST_STACK_KEY, stackMap,
-                        e.getX(), e.getY(),
-                        new ArrayList<>(Arrays.asList(xStackArea, yStackArea, zStackArea)),
-                        new ArrayList<>(Arrays.asList(initialStack, yStack, zStack)));
+                int peg = stackAreaIndex.indexOf(e.getX(), e.getY());
+                mouseActionWithinBounds = peg >= 0;
 
                 if (mouseActionWithinBounds) {
-                    moveDisk(stackMap);
+                    dstPeg = peg;
+                    moveDisk();
                 } else {
-                    try {
-                        stackMap.get(SRC_STACK_KEY).push(topDisk.top());
-                        topDisk.pop();
-                    } catch (Exception x) {
-                        log.error("{}", x.getMessage());
-                    }
+                    // Dropped outside the pegs, the disk goes back where it was
+                    floatingDisk = 0;
                 }
+                renderClock.requestFrame();
             }
         };
 
         addMouseListener(mouseListener);
     }
 
+    private void setComponentListener() {
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                super.componentResized(e);
+                // The layout, and the sprites keyed by it, follow on the next frame
+                renderClock.requestFrame();
+            }
+        });
+    }
+
     private void setMouseMotionListener() {
         mouseMotionListener = new MouseMotionAdapter() {
             @Override
@@ -133,156 +225,636 @@ public class Stage extends Backstage {
                 super.mouseDragged(e);
                 xPointMouse = e.getX();
                 yPointMouse = e.getY();
+                if (mouseActionWithinBounds) {
+                    requestDragFrame();
+                }
             }
         };
 
         addMouseMotionListener(mouseMotionListener);
     }
 
-    private void moveDisk(Map<String, FixedStack> stackMap) {
-        String validMoveMsg = "Valid move...";
-        String invalidMoveMsg = "A bigger disk cannot be placed on top of a smaller one!";
+    // Only the old and the new place of the dragged disk change
+    private void requestDragFrame() {
+        dragRepaintArea.setBounds(floatingDiskArea);
+        // Two pixels around the disk for its anti-aliased edge
+        floatingDiskArea.setBounds(xPointMouse - 22, yPointMouse - 22,
+                floatingDiskWidth() + 5, Math.max(layout.diskHeight(), 1) + 5);
+        if (dragRepaintArea.isEmpty()) {
+            dragRepaintArea.setBounds(floatingDiskArea);
+        } else {
+            dragRepaintArea.add(floatingDiskArea);
+        }
+        renderClock.requestFrame(dragRepaintArea);
+    }
 
-        if (stackMap.get(SRC_STACK_KEY) != null
-                && stackMap.get(DST_STACK_KEY) != null) {
-            try {
-                if (!stackMap.get(DST_STACK_KEY).isEmpty()
-                        && (topDisk.top() > stackMap.get(DST_STACK_KEY).top())) {
-                    stackMap.get(SRC_STACK_KEY).push(topDisk.top());
-                    topDisk.pop();
-                    resetMousePressStartPoint();
-                    status = invalidMoveMsg;
-                    log.warn("{}", invalidMoveMsg);
+    private void moveDisk() {
+        if (srcPeg >= 0 && dstPeg >= 0) {
+            if (floatingDisk == 0) {
+                status = Violation.EMPTY_PEG.message();
+                invalidAttempts++;
+                log.warn("{}", status);
+            } else {
+                floatingDisk = 0;
+                resetMousePressStartPoint();
+                if (srcPeg == dstPeg) {
+                    // Put back where it was lifted from
+                    status = Violation.NONE.message();
+                } else if (!applyMove(srcPeg, dstPeg)) {
                     return;
                 }
+            }
 
-                stackMap.get(DST_STACK_KEY).push(topDisk.top());
-                topDisk.pop();
-                resetMousePressStartPoint();
-                status = validMoveMsg;
-            } catch (Exception e) {
-                String emptyStackMsg = "That stack is empty.";
-                status = emptyStackMsg;
-                log.warn("{}", emptyStackMsg);
+            for (int peg = 0; peg < pegs; peg++) {
+                log.info("Stack {}: {}", peg + 1, state.size(peg));
             }
+        }
+    }
 
-            log.info("Stack 1: {}", initialStack.size());
-            log.info("Stack 2: {}", yStack.size());
-            log.info("Stack 3: {}", zStack.size());
+    // Single entry point for every move, from the mouse or from a replay
+    private boolean applyMove(int from, int to) {
+        Violation violation = rules.check(state, from, to);
+        if (violation != Violation.NONE) {
+            status = violation.message();
+            invalidAttempts++;
+            RenderMetrics.invalidMove();
+            log.warn("{}", status);
+            return false;
         }
+
+        history.record(state, from, to);
+        state.move(from, to);
+        moves++;
+        hintFrom = hintTo = -1;
+        status = violation.message();
+        if (optimality != null) {
+            optimality.accept(from, to);
+            status = String.format("%s %s to go, %d wasted.", status,
+                    Long.toUnsignedString(optimality.distance()), optimality.wastedMoves());
+        }
+        RenderMetrics.moveApplied();
+        record(from, to);
+        firePropertyChange(MOVES_PROPERTY, moves - 1, moves);
+        return true;
     }
 
-    private void resetMousePressStartPoint() {
-        xPointMouse = yPointMouse = -10;
+    public boolean undo() {
+        if (!canNavigateHistory() || !history.undo(state)) {
+            return false;
+        }
+        historyMoved("Took back move " + (history.position() + 1) + ".");
+        return true;
     }
 
-    private int floatingDiskWidth() {
-        if (!topDisk.isEmpty()) {
-            return topDisk.top() * diskHeight;
+    public boolean redo() {
+        if (!canNavigateHistory() || !history.redo(state)) {
+            return false;
+        }
+        historyMoved("Replayed move " + history.position() + ".");
+        return true;
+    }
+
+    /**
+     * Shows the position after the given number of moves, anywhere between
+     * {@link #historyStart()} and {@link #historyEnd()}.
+     */
+    public boolean jumpTo(long move) {
+        if (!canNavigateHistory() || move < history.start() || move > history.end()) {
+            return false;
+        }
+        if (move != history.position()) {
+            history.jumpTo(move, state);
+            historyMoved("At move " + move + " of " + history.end() + ".");
+        }
+        return true;
+    }
+
+    public long moveCount() {
+        return moves;
+    }
+
+    public long historyStart() {
+        return history.start();
+    }
+
+    public long historyEnd() {
+        return history.end();
+    }
+
+    private boolean canNavigateHistory() {
+        return !replaying && !autoSolving && floatingDisk == 0;
+    }
+
+    private void historyMoved(String status) {
+        long old = moves;
+        moves = history.position();
+        if (optimality != null) {
+            optimality.reset(state, moves);
         }
+        srcPeg = dstPeg = -1;
+        hintFrom = hintTo = -1;
+        mouseActionWithinBounds = false;
+        this.status = status;
+        if (recorder != null) {
+            // The file would no longer hold the game on the board
+            log.info("Recording stopped, moves were taken back");
+            stopRecording();
+        }
+        // Finishing the game detached the mouse, going back to it re-attaches
+        removeMouseListener(mouseListener);
+        removeMouseMotionListener(mouseMotionListener);
+        addMouseListener(mouseListener);
+        addMouseMotionListener(mouseMotionListener);
+        // Back from the finished position, the clock goes on from where it stopped
+        if (!started && timeStarted != 0 && !state.isComplete(targetPeg)) {
+            started = true;
+            timeStarted = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(timeElapsed);
+            renderClock.startTicking();
+        }
+        firePropertyChange(MOVES_PROPERTY, old, moves);
+        renderClock.requestFrame();
+    }
 
-        if (stackMap.get(SRC_STACK_KEY) == null
-                    && stackMap.get(DST_STACK_KEY) == null) {
-            return initialStack.top() + diskHeight;
+    /**
+     * Highlights the source and destination pegs of the next move on an
+     * optimal path from the current position.
+     */
+    public void showHint() {
+        if (replaying || autoSolving || floatingDisk != 0) {
+            return;
+        }
+        if (optimality == null) {
+            status = "Hints are available with the classic rules on three pegs only.";
+            renderClock.requestFrame();
+            return;
         }
 
-        /*if (stackMap.get(DST_STACK_KEY) != null) {
-            return stackMap.get(DST_STACK_KEY).top() * diskHeight;
-        }*/
+        int move = DistanceOracle.nextMove(state);
+        if (move == DistanceOracle.NO_MOVE) {
+            hintFrom = hintTo = -1;
+            status = "Nothing left to move.";
+        } else {
+            hintFrom = Move.from(move);
+            hintTo = Move.to(move);
+            status = String.format("Hint: disk %d from %s to %s, %s moves left.",
+                    Move.disk(move), poleLabels[hintFrom], poleLabels[hintTo],
+                    Long.toUnsignedString(DistanceOracle.distance(state)));
+        }
+        renderClock.requestFrame();
+    }
 
-        if ((stackMap.get(SRC_STACK_KEY) != null
-                || stackMap.get(DST_STACK_KEY) != null)
-                && !stackMap.get(SRC_STACK_KEY).isEmpty()) {
-            return stackMap.get(SRC_STACK_KEY).top() * diskHeight;
+    // X first and Z last whatever the number of pegs, the spare ones are Y1, Y2...
+    static String poleLabel(int peg, int pegs) {
+        if (peg == 0) {
+            return "X";
+        }
+        if (peg == pegs - 1) {
+            return "Z";
         }
+        return pegs == GameState.PEGS ? "Y" : "Y" + peg;
+    }
 
-        return 0;
+    /**
+     * Records every game started from now on as a file in the given
+     * directory; {@code null} stops recording.
+     */
+    public void setRecordingDirectory(Path recordingDirectory) {
+        this.recordingDirectory = recordingDirectory;
+        if (recordingDirectory == null) {
+            stopRecording();
+        }
     }
 
-    @Override
-    public void graphics(Graphics g) {
-        // Canvas background
-        super.graphics(g);
+    /**
+     * Saves the game to the given store once it is finished; {@code null}
+     * saves nothing.
+     */
+    public void setStatsStore(StatsStore statsStore) {
+        this.statsStore = statsStore;
+    }
 
-        drawBase();
-        drawStacks();
-        setStatus();
+    // Results are kept for the classic rules only
+    private void saveResult() {
+        if (statsStore == null || resultSaved || rules != RuleVariants.CLASSIC) {
+            return;
+        }
+        resultSaved = true;
+        try {
+            statsStore.append(GameResult.of(System.currentTimeMillis(), state.disks(), pegs,
+                    System.nanoTime() - timeStarted, moves, invalidAttempts));
+        } catch (IOException e) {
+            log.error("Result not saved: {}", e.getMessage());
+        }
+    }
 
-        int diskWidth = floatingDiskWidth();
-        if (mouseActionWithinBounds
-                && (xPointMouse >= 0 && yPointMouse >= 0)) {
-            g.setColor(Color.GRAY);
-            g.fillRoundRect(xPointMouse - 20, yPointMouse - 20,
-                    diskWidth, diskHeight,
-                    diskArc, diskArc);
+    private void record(int from, int to) {
+        // The recording format stores three peg moves only, replayed by the classic rules
+        if (recordingDirectory == null || replaying || autoSolving || pegs != GameState.PEGS
+                || rules != RuleVariants.CLASSIC) {
+            return;
         }
 
-        elapsedTime();
-        doRepaint();
+        try {
+            if (recorder == null) {
+                if (moves != 1) {
+                    // Switched on mid-game, the recording starts with the next game
+                    return;
+                }
+                Path file = recordingDirectory.resolve(
+                        String.format("game-%d-%d.tohr", System.currentTimeMillis(), state.disks()));
+                recorder = new GameRecorder(file, state.disks(),
+                        System.currentTimeMillis() - (started ? timeElapsed : 0));
+                log.info("Recording game to {}", file);
+            }
+            recorder.append(from, to);
+        } catch (IOException e) {
+            log.error("Recording stopped: {}", e.getMessage());
+            recordingDirectory = null;
+            stopRecording();
+        }
     }
 
-    private void doRepaint() {
-        if (started) {
-            repaint();
+    private void stopRecording() {
+        if (recorder != null) {
+            try {
+                recorder.close();
+            } catch (IOException e) {
+                log.error("{}", e.getMessage());
+            }
+            recorder = null;
         }
     }
 
-    private void drawBase() {
-        // Pole x/y/z markers
-        g.setFont(new Font("Courier New", Font.BOLD, 24));
-        g.setColor( Color.WHITE );
-        g.drawString("X", 90, 290);
-        g.drawString("Y", 290, 290);
-        g.drawString("Z", 490, 290);
-        // Base
-        g.setColor(new Color(182, 103, 19));
-        g.fillRect(10, 240, 575, 15);
-        // Poles x/y/z
-        int y = StackDisplayUpdater.yPointPole(elements, diskHeight);
-        g.fillRect(xPointPoleX, y, 2, elements * diskHeight);
-        g.fillRect(xPointPoleY, y, 2, elements * diskHeight);
-        g.fillRect(xPointPoleZ, y, 2, elements * diskHeight);
+    /**
+     * Plays a recording back from the initial position. Recorded pauses are
+     * divided by {@code speed}; a speed of 0 applies every move at once.
+     */
+    public void replay(GameRecording recording, double speed) {
+        if (recording.disks() != state.disks() || pegs != GameState.PEGS || rules != RuleVariants.CLASSIC) {
+            throw new IllegalArgumentException("Recording has " + recording.disks()
+                    + " disks, the stage has " + state.disks());
+        }
+        if (moves != 0) {
+            throw new IllegalStateException("Replays start from the initial position");
+        }
+
+        replaying = true;
+        resultSaved = true;
+        replayCursor = recording.cursor();
+        status = "Replaying " + recording.file().getFileName() + "...";
+        if (speed <= 0 || Double.isInfinite(speed)) {
+            while (nextReplayMove()) {
+                if (!applyMove(replayCursor.from(), replayCursor.to())) {
+                    replayFailed = true;
+                    break;
+                }
+            }
+            finishReplay();
+            return;
+        }
+
+        replaySpeed = speed;
+        replayTimer = new Timer(0, e -> replayNextMove());
+        replayTimer.setRepeats(false);
+        scheduleReplayMove();
     }
 
-    private void drawStacks() {
-        if ((initialStack.size() < elements) && !started) {
+    private void scheduleReplayMove() {
+        if (!nextReplayMove()) {
+            finishReplay();
+            return;
+        }
+        replayTimer.setInitialDelay((int) Math.min(Integer.MAX_VALUE, replayCursor.delta() / replaySpeed));
+        replayTimer.restart();
+    }
+
+    private boolean nextReplayMove() {
+        try {
+            return replayCursor.next();
+        } catch (IOException e) {
+            status = "Replay stopped, the recording is damaged.";
+            log.error("{}", e.getMessage());
+            replayFailed = true;
+            return false;
+        }
+    }
+
+    private void replayNextMove() {
+        if (!applyMove(replayCursor.from(), replayCursor.to())) {
+            replayFailed = true;
+            finishReplay();
+            return;
+        }
+        renderClock.requestFrame();
+        scheduleReplayMove();
+    }
+
+    private void finishReplay() {
+        if (replayTimer != null) {
+            replayTimer.stop();
+        }
+        if (!replayFailed) {
+            status = "Replay finished after " + moves + " moves.";
+        }
+        replaying = false;
+        replayFailed = false;
+        renderClock.requestFrame();
+    }
+
+    /**
+     * Plays the rest of the game from the current position, at
+     * {@code movesPerSecond} or as fast as the moves can be applied when it is
+     * infinite. The moves come from a solver thread through a bounded queue;
+     * up to {@link #AUTO_SOLVE_MAX_ANIMATED_SPEED} each disk glides between
+     * the pegs, above that every tick applies all the moves that are due and
+     * only the resulting position is drawn.
+     */
+    public void autoSolve(double movesPerSecond) {
+        if (!(movesPerSecond > 0)) {
+            throw new IllegalArgumentException("Speed must be positive: " + movesPerSecond);
+        }
+        if (replaying || autoSolving) {
+            return;
+        }
+        if (state.isComplete(targetPeg)) {
+            status = "Nothing left to move.";
+            renderClock.requestFrame();
+            return;
+        }
+        // The variants' solvers play the whole game, not from any position
+        if (rules != RuleVariants.CLASSIC && (moves != 0 || state.disks() > rules.maxDisks())) {
+            status = "With these rules, auto-solve starts from the initial position, up to "
+                    + rules.maxDisks() + " disks.";
+            renderClock.requestFrame();
+            return;
+        }
+
+        // Whatever the user was holding goes back first
+        floatingDisk = 0;
+        srcPeg = dstPeg = -1;
+        mouseActionWithinBounds = false;
+        hintFrom = hintTo = -1;
+        // A recording would not be a game the user played
+        stopRecording();
+
+        autoSolving = true;
+        resultSaved = true;
+        autoSolveSpeed = movesPerSecond;
+        autoSolveDue = 0;
+        autoSolveLastTick = System.nanoTime();
+        autoSolveBatch = new int[AUTO_SOLVE_BATCH_SIZE];
+        status = "Auto-solving...";
+        log.info("Auto-solving from {} at {} moves/s", state, movesPerSecond);
+
+        GameState position = state.copy();
+        RuleVariant variant = rules;
+        Consumer<MoveConsumer> solver = rules == RuleVariants.CLASSIC
+                ? consumer -> PositionSolver.solve(position, consumer)
+                : consumer -> variant.solve(position.disks(), consumer);
+        MoveQueue queue = new MoveQueue(AUTO_SOLVE_QUEUE_SIZE);
+        autoSolveQueue = queue;
+        VirtualThreads.start("auto-solve", () -> produceMoves(solver, queue));
+        autoSolveTimer = new Timer(AUTO_SOLVE_TICK_MILLIS, e -> autoSolveTick());
+        autoSolveTimer.setCoalesce(true);
+        autoSolveTimer.start();
+        renderClock.requestFrame();
+    }
+
+    public boolean isAutoSolving() {
+        return autoSolving;
+    }
+
+    public void stopAutoSolve() {
+        if (!autoSolving) {
+            return;
+        }
+        finishAutoSolve();
+        status = "Auto-solve stopped after " + moves + " moves.";
+    }
+
+    // Runs on the solver thread
+    private static void produceMoves(Consumer<MoveConsumer> solver, MoveQueue queue) {
+        int[] batch = new int[AUTO_SOLVE_BATCH_SIZE];
+        int[] size = new int[1];
+        try {
+            solver.accept((disk, from, to) -> {
+                batch[size[0]++] = Move.pack(disk, from, to);
+                if (size[0] == batch.length) {
+                    if (!queue.putAll(batch, size[0])) {
+                        throw new CancellationException();
+                    }
+                    size[0] = 0;
+                }
+            });
+            queue.putAll(batch, size[0]);
+        } catch (CancellationException e) {
+            // Stopped by the stage, nobody is reading any more
+        } finally {
+            queue.close();
+        }
+    }
+
+    private void autoSolveTick() {
+        if (autoSolveSpeed <= AUTO_SOLVE_MAX_ANIMATED_SPEED) {
+            animateNextMove();
+        } else {
+            applyDueMoves();
+        }
+        renderClock.requestFrame();
+    }
+
+    private void animateNextMove() {
+        if (animatedMove >= 0) {
+            if (animationProgress() < 1) {
+                return;
+            }
+            int move = animatedMove;
+            animatedMove = -1;
+            floatingDisk = 0;
+            srcPeg = -1;
+            if (!applyMove(Move.from(move), Move.to(move))) {
+                finishAutoSolve();
+                return;
+            }
+            status = "Auto-solving...";
+        }
+
+        int count = autoSolveQueue.drain(autoSolveBatch, 1);
+        if (count == MoveQueue.CLOSED) {
+            finishAutoSolve();
+        } else if (count == 1) {
+            animatedMove = autoSolveBatch[0];
+            animationStart = System.nanoTime();
+            // The moving disk is lifted off its peg, like a dragged one
+            srcPeg = Move.from(animatedMove);
+            floatingDisk = Move.disk(animatedMove);
+        }
+    }
+
+    private void applyDueMoves() {
+        long now = System.nanoTime();
+        autoSolveDue = Math.min(autoSolveDue + autoSolveSpeed * (now - autoSolveLastTick) / 1e9,
+                Integer.MAX_VALUE);
+        autoSolveLastTick = now;
+
+        // Only the state after the last move of the tick gets drawn
+        long deadline = now + AUTO_SOLVE_TICK_BUDGET_NANOS;
+        while (autoSolveDue >= 1 && System.nanoTime() < deadline) {
+            int count = autoSolveQueue.drain(autoSolveBatch,
+                    (int) Math.min(autoSolveBatch.length, autoSolveDue));
+            if (count == MoveQueue.CLOSED) {
+                finishAutoSolve();
+                return;
+            }
+            if (count == 0) {
+                // The solver is behind, nothing is owed for the wait
+                autoSolveDue = 0;
+                return;
+            }
+            for (int i = 0; i < count; i++) {
+                int move = autoSolveBatch[i];
+                if (rules.check(state, Move.from(move), Move.to(move)) != Violation.NONE) {
+                    status = "Auto-solve produced an illegal move: " + Move.toString(move);
+                    log.error("{}", status);
+                    moves = history.position();
+                    finishAutoSolve();
+                    return;
+                }
+                history.record(state, Move.from(move), Move.to(move));
+                state.move(Move.from(move), Move.to(move));
+                if (optimality != null) {
+                    optimality.accept(Move.from(move), Move.to(move));
+                }
+            }
+            moves += count;
+            autoSolveDue -= count;
+            firePropertyChange(MOVES_PROPERTY, moves - count, moves);
+        }
+    }
+
+    private double animationProgress() {
+        return (System.nanoTime() - animationStart) * autoSolveSpeed / 1e9;
+    }
+
+    private void finishAutoSolve() {
+        autoSolving = false;
+        autoSolveQueue.cancel();
+        autoSolveTimer.stop();
+        if (animatedMove >= 0) {
+            animatedMove = -1;
+            floatingDisk = 0;
+            srcPeg = -1;
+        }
+        log.info("Auto-solve ended after {} moves", moves);
+        renderClock.requestFrame();
+    }
+
+    private void resetMousePressStartPoint() {
+        xPointMouse = yPointMouse = -10;
+    }
+
+    private int floatingDiskWidth() {
+        int disk;
+        if (floatingDisk != 0) {
+            disk = floatingDisk;
+        } else if (srcPeg < 0) {
+            disk = state.topDisk(PEG_X);
+        } else {
+            disk = state.topDisk(srcPeg);
+        }
+        return disk == 0 ? 0 : layout.diskWidth(disk);
+    }
+
+    // Geometry for the current size, recomputed only when the size changes,
+    // and the hit index of the stack areas with it
+    private StageLayout stageLayout() {
+        int width = getSize().width;
+        int height = getSize().height;
+        if (layout == null || !layout.fits(width, height)) {
+            layout = new StageLayout(width, height, elements, pegs);
+            for (int peg = 0; peg < pegs; peg++) {
+                layout.stackArea(peg, stackAreas[peg]);
+            }
+            stackAreaIndex.rebuild(stackAreas, width);
+        }
+        return layout;
+    }
+
+    @Override
+    protected Scene captureScene() {
+        StageLayout layout = stageLayout();
+        updateProgress();
+        return new StageSnapshot(layout, state.copy(), srcPeg, floatingDisk,
+                mouseActionWithinBounds && (xPointMouse >= 0 && yPointMouse >= 0),
+                xPointMouse, yPointMouse,
+                animatedMove, animatedMove >= 0 ? animationProgress() : 0,
+                hintFrom, hintTo, status, elapsedTime(), metricsOverlay,
+                rules == RuleVariants.BICOLOUR);
+    }
+
+    public void setMetricsOverlay(boolean metricsOverlay) {
+        this.metricsOverlay = metricsOverlay;
+        if (metricsOverlay) {
+            RenderMetrics.setEnabled(true);
+        }
+        renderClock.requestFrame();
+    }
+
+    @Override
+    public void removeNotify() {
+        renderClock.stop();
+        if (replayTimer != null) {
+            replayTimer.stop();
+        }
+        if (autoSolving) {
+            finishAutoSolve();
+        }
+        stopRecording();
+        super.removeNotify();
+    }
+
+    // Start and end of the game, noticed as frames are captured
+    private void updateProgress() {
+        // Once only: after the game is over the clock stays stopped, or is
+        // resumed by going back in the history
+        if ((state.size(PEG_X) < elements) && !started && timeStarted == 0) {
             started = true;
             status = "Game started.";
-            timeStarted = System.currentTimeMillis();
+            timeStarted = System.nanoTime();
+            renderClock.startTicking();
         }
 
-        xStackArea = StackDisplayUpdater.draw(g, initialStack, elements, xPointPoleX);
-        yStackArea = StackDisplayUpdater.draw(g, yStack, elements, xPointPoleY);
-        zStackArea = StackDisplayUpdater.draw(g, zStack, elements, xPointPoleZ);
-
-        timeElapsed = (System.currentTimeMillis() - timeStarted);
+        if (started) {
+            timeElapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - timeStarted);
+        }
 
-        if (initialStack.isEmpty()
-                && yStack.isEmpty()
-                && topDisk.isEmpty()) {
+        if (state.isComplete(targetPeg)
+                && floatingDisk == 0) {
+            if (started) {
+                saveResult();
+            }
             started = false;
             status = "Game completed!";
             resetMousePressStartPoint();
+            renderClock.stopTicking();
+            stopRecording();
             removeMouseListener(mouseListener);
             removeMouseMotionListener(mouseMotionListener);
         }
     }
 
-    private void setStatus() {
-        g.setColor(new Color(241, 216, 111, 255));
-        g.setFont(new Font("Courier New", Font.PLAIN, 18));
-        g.drawString(this.status, 25, 360);
-    }
-
-    private void elapsedTime() {
-        long ss = TimeUnit.MILLISECONDS.toSeconds(timeElapsed) % 60;
-        long mm = TimeUnit.MILLISECONDS.toMinutes(timeElapsed) % 60;
-        long hh = TimeUnit.MILLISECONDS.toHours(timeElapsed);
-        String formattedElapsedTime = String.format("Elapsed time - %02d:%02d:%02d", hh, mm, ss);
+    private String elapsedTime() {
+        // The label only changes once per second, format it then
+        long elapsedSeconds = TimeUnit.MILLISECONDS.toSeconds(timeElapsed);
+        if (elapsedSeconds != elapsedSecondsShown) {
+            long ss = elapsedSeconds % 60;
+            long mm = TimeUnit.MILLISECONDS.toMinutes(timeElapsed) % 60;
+            long hh = TimeUnit.MILLISECONDS.toHours(timeElapsed);
+            formattedElapsedTime = String.format("Elapsed time - %02d:%02d:%02d", hh, mm, ss);
+            elapsedSecondsShown = elapsedSeconds;
+        }
 
-        g.setColor(new Color(85, 85, 81, 255));
-        g.setFont(new Font("Courier New", Font.BOLD, 14));
-        g.drawString(formattedElapsedTime, 25, 400);
+        return formattedElapsedTime;
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,210 @@
+package xyz.joseyamut.gfx;
+
+import java.awt.*;
+
+/**
+ * Stage geometry for one canvas size, disk count and peg count. Disks are at
+ * most {@link Stage#diskHeight} pixels high and 20 pixels wider per size, and
+ * shrink to fit the canvas. Once a disk would be too thin for its outline
+ * to be seen the stacks are drawn as flat bands instead, see
+ * {@link #isBanded()}.
+ * Layouts are equal when they were computed from the same inputs.
+ */
+public class StageLayout {
+
+    // Room under the base for the pole labels, status and elapsed time
+    private static final int TEXT_HEIGHT = 200;
+    private static final int MARGIN = 10;
+    private static final int TOP_MARGIN = 20;
+    private static final int BASE_HEIGHT = 15;
+    // Space kept clear between the widest disks of neighbouring poles
+    private static final int STACK_GAP = 8;
+    private static final int MAX_DISK_WIDTH_STEP = 20;
+    // Thinner disks are drawn as bands
+    private static final int MIN_SPRITE_HEIGHT = 4;
+
+    private final int width;
+    private final int height;
+    private final int elements;
+    private final int pegs;
+
+    private final int baseY;
+    private final int poleTop;
+    private final int diskHeight;
+    private final int diskArc;
+    private final boolean banded;
+    // Pixel rows per disk when banded, may be below 1
+    private final double bandScale;
+    private final double diskWidthStep;
+    private final int[] xPointPoles;
+    private final Color[] palette;
+
+    /**
+     * @param elements disk count plus one, as kept by {@link Stage}
+     */
+    public StageLayout(int width, int height, int elements, int pegs) {
+        this.width = width;
+        this.height = height;
+        this.elements = elements;
+        this.pegs = pegs;
+
+        baseY = Math.max(height - TEXT_HEIGHT, 2 * TOP_MARGIN);
+        int stackRoom = baseY - TOP_MARGIN;
+        int fittedHeight = Math.min(Stage.diskHeight, stackRoom / elements);
+        banded = fittedHeight < MIN_SPRITE_HEIGHT;
+        if (banded) {
+            bandScale = (double) stackRoom / elements;
+            diskHeight = Math.max(fittedHeight, 1);
+            poleTop = TOP_MARGIN;
+        } else {
+            bandScale = fittedHeight;
+            diskHeight = fittedHeight;
+            poleTop = baseY - elements * diskHeight;
+        }
+        diskArc = Stage.diskArc * diskHeight / Stage.diskHeight;
+
+        double spacing = (double) (width - 2 * MARGIN) / pegs;
+        diskWidthStep = Math.min(MAX_DISK_WIDTH_STEP, (spacing - STACK_GAP) / Math.max(elements - 1, 1));
+        // Centred in equal slots, 98/298/498 for three pegs on a 600 pixel canvas
+        xPointPoles = new int[pegs];
+        for (int peg = 0; peg < pegs; peg++) {
+            xPointPoles[peg] = (int) Math.round(width * (2 * peg + 1) / (2.0 * pegs)) - 2;
+        }
+        palette = StackDisplayUpdater.palette(elements);
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    public int elements() {
+        return elements;
+    }
+
+    public int pegs() {
+        return pegs;
+    }
+
+    public int baseX() {
+        return MARGIN;
+    }
+
+    public int baseY() {
+        return baseY;
+    }
+
+    public int baseWidth() {
+        return width - 2 * MARGIN;
+    }
+
+    public int baseHeight() {
+        return BASE_HEIGHT;
+    }
+
+    public int poleTop() {
+        return poleTop;
+    }
+
+    public int poleHeight() {
+        return baseY - poleTop;
+    }
+
+    public int xPointPole(int peg) {
+        return xPointPoles[peg];
+    }
+
+    /**
+     * True when disks are too thin for sprites and stacks are drawn as flat
+     * bands, with disks sharing a pixel row once there are more disks than
+     * rows.
+     */
+    public boolean isBanded() {
+        return banded;
+    }
+
+    /**
+     * Disk height in pixels, rounded down (and at least 1) when banded.
+     */
+    public int diskHeight() {
+        return diskHeight;
+    }
+
+    public int diskArc() {
+        return diskArc;
+    }
+
+    /**
+     * Fill colour for a colour index, see {@link StackDisplayUpdater}.
+     */
+    public Color diskColour(int colourIndex) {
+        return palette[colourIndex];
+    }
+
+    public int diskWidth(int disk) {
+        return Math.max(1, (int) Math.round(disk * diskWidthStep));
+    }
+
+    /**
+     * Top edge of the disk at the given position, 1 being the bottom one.
+     */
+    public int diskY(int position) {
+        if (banded) {
+            return baseY - Math.max(bandRow(position + 1), bandRow(position) + 1);
+        }
+        return baseY - position * diskHeight;
+    }
+
+    /**
+     * Lowest pixel row above the base covered by the disk at the given
+     * position when banded, 0 being the row on the base. The disk reaches up
+     * to the row of the next position, and shares it when that is the same.
+     */
+    public int bandRow(int position) {
+        return (int) ((position - 1) * bandScale);
+    }
+
+    public int labelY() {
+        return baseY + 50;
+    }
+
+    public int statusY() {
+        return baseY + 120;
+    }
+
+    public int elapsedTimeY() {
+        return baseY + 160;
+    }
+
+    public Rectangle stackArea(int peg, Rectangle area) {
+        int widestDiskWidth = diskWidth(elements - 1);
+        area.setBounds(xPointPoles[peg] - (widestDiskWidth / 2) - 2, poleTop,
+                widestDiskWidth + 2, poleHeight());
+        return area;
+    }
+
+    public boolean fits(int width, int height) {
+        return this.width == width && this.height == height;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof StageLayout other)) {
+            return false;
+        }
+        return width == other.width && height == other.height
+                && elements == other.elements && pegs == other.pegs;
+    }
+
+    @Override
+    public int hashCode() {
+        return ((width * 31 + height) * 31 + elements) * 31 + pegs;
+    }
+
+}
@@ -0,0 +1,172 @@
+package xyz.joseyamut.gfx;
+
+import xyz.joseyamut.metrics.RenderMetrics;
+import xyz.joseyamut.solver.Move;
+import xyz.joseyamut.util.GameState;
+
+import java.awt.*;
+
+/**
+ * One frame of a {@link Stage}: a copy of the position and of everything
+ * else on screen, taken on the EDT. The state is a private copy that nothing
+ * changes, so the render thread draws it while the stage moves on.
+ */
+record StageSnapshot(StageLayout layout,
+                     GameState state,
+                     int srcPeg,
+                     int floatingDisk,
+                     boolean dragging,
+                     int xPointMouse,
+                     int yPointMouse,
+                     int animatedMove,
+                     double animationProgress,
+                     int hintFrom,
+                     int hintTo,
+                     String status,
+                     String elapsedTime,
+                     boolean metricsOverlay,
+                     boolean bicolour) implements Scene {
+
+    // Text
+    private static final Font poleFont = new Font("Courier New", Font.BOLD, 24);
+    private static final Font statusFont = new Font("Courier New", Font.PLAIN, 18);
+    private static final Font elapsedTimeFont = new Font("Courier New", Font.BOLD, 14);
+    private static final Font metricsFont = new Font("Courier New", Font.PLAIN, 12);
+    private static final Color baseColor = new Color(182, 103, 19);
+    private static final Color statusColor = new Color(241, 216, 111, 255);
+    private static final Color elapsedTimeColor = new Color(85, 85, 81, 255);
+    private static final Color hintFromColor = new Color(255, 126, 64);
+    private static final Color hintToColor = new Color(241, 216, 111);
+    // Reused by every frame; render threads draw one at a time (see Backstage)
+    private static final Rectangle scratchArea = new Rectangle();
+
+    @Override
+    public int width() {
+        return layout.width();
+    }
+
+    @Override
+    public int height() {
+        return layout.height();
+    }
+
+    @Override
+    public void draw(Graphics2D g) {
+        // Canvas background, base and poles
+        g.drawImage(SpriteCache.background(layout, StageSnapshot::drawBase), 0, 0, null);
+
+        for (int peg = 0; peg < layout.pegs(); peg++) {
+            StackDisplayUpdater.draw(g, layout, state, peg, srcPeg == peg ? floatingDisk : 0, bicolour, scratchArea);
+        }
+        drawHint(g);
+        drawStatus(g);
+
+        if (dragging) {
+            g.setColor(Color.GRAY);
+            g.fillRoundRect(xPointMouse - 20, yPointMouse - 20,
+                    floatingDiskWidth(), Math.max(layout.diskHeight(), 1),
+                    layout.diskArc(), layout.diskArc());
+        }
+        if (animatedMove >= 0) {
+            drawAnimatedDisk(g);
+        }
+
+        g.setColor(elapsedTimeColor);
+        g.setFont(elapsedTimeFont);
+        g.drawString(elapsedTime, 25, layout.elapsedTimeY());
+
+        if (metricsOverlay) {
+            drawMetricsOverlay(g);
+        }
+    }
+
+    private int floatingDiskWidth() {
+        int disk;
+        if (floatingDisk != 0) {
+            disk = floatingDisk;
+        } else {
+            disk = state.topDisk(Math.max(srcPeg, 0));
+        }
+        return disk == 0 ? 0 : layout.diskWidth(disk);
+    }
+
+    private static void drawBase(Graphics2D g, StageLayout layout) {
+        // Pole markers
+        g.setFont(poleFont);
+        g.setColor( Color.WHITE );
+        for (int peg = 0; peg < layout.pegs(); peg++) {
+            String label = Stage.poleLabel(peg, layout.pegs());
+            g.drawString(label, layout.xPointPole(peg) - 8 * label.length(), layout.labelY());
+        }
+        // Base
+        g.setColor(baseColor);
+        g.fillRect(layout.baseX(), layout.baseY(), layout.baseWidth(), layout.baseHeight());
+        // Poles
+        for (int peg = 0; peg < layout.pegs(); peg++) {
+            g.fillRect(layout.xPointPole(peg), layout.poleTop(), 2, layout.poleHeight());
+        }
+    }
+
+    private void drawHint(Graphics2D g) {
+        if (hintFrom < 0) {
+            return;
+        }
+        drawHintArea(g, hintFrom, hintFromColor);
+        drawHintArea(g, hintTo, hintToColor);
+    }
+
+    private void drawHintArea(Graphics2D g, int peg, Color color) {
+        Rectangle area = layout.stackArea(peg, scratchArea);
+        g.setColor(color);
+        g.drawRect(area.x, area.y, area.width, area.height);
+        g.drawRect(area.x + 1, area.y + 1, area.width - 2, area.height - 2);
+    }
+
+    private void drawStatus(Graphics2D g) {
+        g.setColor(statusColor);
+        g.setFont(statusFont);
+        g.drawString(status, 25, layout.statusY());
+    }
+
+    // Up from the source peg, across above the poles and down onto the target
+    private void drawAnimatedDisk(Graphics2D g) {
+        int from = Move.from(animatedMove);
+        int to = Move.to(animatedMove);
+        int diskWidth = layout.diskWidth(Move.disk(animatedMove));
+        int diskHeight = Math.max(layout.diskHeight(), 1);
+        int liftY = layout.poleTop() - diskHeight - 4;
+        int fromY = layout.diskY(state.size(from));
+        int toY = layout.diskY(state.size(to) + 1);
+        int fromX = layout.xPointPole(from) - diskWidth / 2;
+        int toX = layout.xPointPole(to) - diskWidth / 2;
+
+        double t = Math.min(animationProgress, 1) * 3;
+        int x;
+        int y;
+        if (t < 1) {
+            x = fromX;
+            y = (int) (fromY + (liftY - fromY) * t);
+        } else if (t < 2) {
+            x = (int) (fromX + (toX - fromX) * (t - 1));
+            y = liftY;
+        } else {
+            x = toX;
+            y = (int) (liftY + (toY - liftY) * (t - 2));
+        }
+        g.setColor(Color.GRAY);
+        g.fillRoundRect(x, y, diskWidth, diskHeight, layout.diskArc(), layout.diskArc());
+    }
+
+    private static void drawMetricsOverlay(Graphics2D g) {
+        RenderMetrics metrics = RenderMetrics.get();
+        g.setColor(Color.LIGHT_GRAY);
+        g.setFont(metricsFont);
+        g.drawString(String.format("%.1f fps, frame p50/p99 %d/%d us",
+                metrics.getFramesPerSecond(),
+                metrics.getFrameTimeP50Micros(), metrics.getFrameTimeP99Micros()), 10, 15);
+        g.drawString(String.format("%d B/frame, move p99 %d us, invalid %d",
+                metrics.getAllocatedBytesPerFrame(),
+                metrics.getMoveLatencyP99Micros(), metrics.getInvalidMoves()), 10, 30);
+    }
+
+}
@@ -1,28 +1,62 @@
 package xyz.joseyamut.gfx;
 
 import lombok.extern.slf4j.Slf4j;
+import xyz.joseyamut.record.GameRecording;
+import xyz.joseyamut.rules.RuleVariant;
+import xyz.joseyamut.rules.RuleVariants;
+import xyz.joseyamut.stats.CompletionStats;
+import xyz.joseyamut.stats.GameResult;
+import xyz.joseyamut.stats.StatsStore;
 import xyz.joseyamut.util.FixedStack;
+import xyz.joseyamut.util.GameState;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import javax.swing.text.*;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 
 @Slf4j
 public class TohWindow extends JFrame {
 
     private JMenuItem instructionsItem;
     private JMenuItem restartGameItem;
+    private JMenuItem hintItem;
+    private JMenuItem undoItem;
+    private JMenuItem redoItem;
+    private JMenuItem autoSolveItem;
+    private JCheckBoxMenuItem metricsItem;
+    private JCheckBoxMenuItem recordItem;
+    private JMenuItem replayItem;
+    private JMenuItem resultsItem;
     private JMenuItem exitItem;
     private JPanel stagePanel;
+    // Position within the move history, follows the stage
+    private JSlider scrubber;
+    private boolean updatingScrubber;
 
     private Stage stage;
     private int stackSize;
+    private int pegs;
+    private RuleVariant rules;
+    // Finished games, null when the file could not be opened
+    private StatsStore statsStore;
 
     public void launch() {
         // Initialize stack
         stackSize = 4;
+        pegs = GameState.PEGS;
+        rules = RuleVariants.CLASSIC;
+        statsStore = openStatsStore();
         stage = initializeStage();
         // Set MenuBar, actions and other components
         setJMenuBar(menuBar());
@@ -31,9 +65,30 @@ public class TohWindow extends JFrame {
         decorate();
         // Window particulars
         setSize(615, 540);
-        setResizable(false);
+        setMinimumSize(new Dimension(400, 420));
+        setResizable(true);
         setVisible(true);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                shutDown();
+            }
+        });
+    }
+
+    // Runs before the exit: disposing the frame takes the stage down with any
+    // recording it holds, and the results are forced to disk
+    private void shutDown() {
+        dispose();
+        if (statsStore != null) {
+            try {
+                statsStore.close();
+            } catch (IOException e) {
+                log.error("Results not saved: {}", e.getMessage());
+            }
+            statsStore = null;
+        }
     }
 
     private void decorate() {
@@ -46,6 +101,18 @@ public class TohWindow extends JFrame {
         stagePanel.setBorder(new EmptyBorder(5, 10, 5, 10));
         container.add(stagePanel, BorderLayout.CENTER);
 
+        scrubber = new JSlider(0, 0, 0);
+        scrubber.setBorder(new EmptyBorder(0, 10, 5, 10));
+        scrubber.setToolTipText("Jump to any move of the game");
+        scrubber.addChangeListener(e -> {
+            if (!updatingScrubber && !stage.jumpTo(stage.historyStart() + scrubber.getValue())) {
+                // Busy replaying or solving, the slider goes back to the game
+                updateScrubber();
+            }
+        });
+        container.add(scrubber, BorderLayout.SOUTH);
+        watchMoves();
+
         JLabel gameLabel = new JLabel("Tower of Hanoi", SwingConstants.CENTER);
         gameLabel.setForeground(new Color(255, 126, 64));
         gameLabel.setFont(new Font("Arial", Font.BOLD, 34));
@@ -65,9 +132,28 @@ public class TohWindow extends JFrame {
         JMenu menu = new JMenu("Game");
         instructionsItem = new JMenuItem("Instructions");
         restartGameItem = new JMenuItem("Restart Game");
+        hintItem = new JMenuItem("Hint");
+        hintItem.setAccelerator(KeyStroke.getKeyStroke('H', Toolkit.getDefaultToolkit().getMenuShortcutKeyMaskEx()));
+        undoItem = new JMenuItem("Undo");
+        undoItem.setAccelerator(KeyStroke.getKeyStroke('Z', Toolkit.getDefaultToolkit().getMenuShortcutKeyMaskEx()));
+        redoItem = new JMenuItem("Redo");
+        redoItem.setAccelerator(KeyStroke.getKeyStroke('Y', Toolkit.getDefaultToolkit().getMenuShortcutKeyMaskEx()));
+        autoSolveItem = new JMenuItem("Auto-solve...");
+        metricsItem = new JCheckBoxMenuItem("Show Metrics");
+        recordItem = new JCheckBoxMenuItem("Record Games");
+        replayItem = new JMenuItem("Replay Game...");
+        resultsItem = new JMenuItem("Results...");
         exitItem = new JMenuItem("Exit");
         menu.add(instructionsItem);
         menu.add(restartGameItem);
+        menu.add(hintItem);
+        menu.add(undoItem);
+        menu.add(redoItem);
+        menu.add(autoSolveItem);
+        menu.add(metricsItem);
+        menu.add(recordItem);
+        menu.add(replayItem);
+        menu.add(resultsItem);
         menu.add(exitItem);
         menuBar.add(menu);
         return  menuBar;
@@ -76,7 +162,18 @@ public class TohWindow extends JFrame {
     private void menuItemActions() {
         instructionsItem.addActionListener(e -> instructionsDialog());
         restartGameItem.addActionListener(e -> restartGameDialog());
-        exitItem.addActionListener(e -> System.exit(0));
+        hintItem.addActionListener(e -> stage.showHint());
+        undoItem.addActionListener(e -> stage.undo());
+        redoItem.addActionListener(e -> stage.redo());
+        autoSolveItem.addActionListener(e -> autoSolveDialog());
+        metricsItem.addActionListener(e -> stage.setMetricsOverlay(metricsItem.isSelected()));
+        recordItem.addActionListener(e -> stage.setRecordingDirectory(recordingDirectory()));
+        replayItem.addActionListener(e -> replayDialog());
+        resultsItem.addActionListener(e -> resultsDialog());
+        exitItem.addActionListener(e -> {
+            shutDown();
+            System.exit(0);
+        });
     }
 
     private void instructionsDialog() {
@@ -102,7 +199,10 @@ public class TohWindow extends JFrame {
     }
 
     private void restartGameDialog() {
-        Integer[] numDisks = new Integer[] {4, 5, 6, 7, 8};
+        Integer[] numDisks = IntStream.rangeClosed(1, GameState.MAX_DISKS).boxed().toArray(Integer[]::new);
+        Integer[] numPegs = new Integer[] {3, 4};
+        List<RuleVariant> variants = RuleVariants.all();
+        String[] ruleTitles = variants.stream().map(RuleVariant::title).toArray(String[]::new);
 
         FlowLayout flowLayout = new FlowLayout();
         flowLayout.setAlignment(FlowLayout.CENTER);
@@ -112,27 +212,181 @@ public class TohWindow extends JFrame {
         JLabel jLabel = new JLabel("Number of disks?");
         JComboBox<Integer> restartComboBox = new JComboBox<>(numDisks);
         restartComboBox.setSelectedIndex(Arrays.asList(numDisks).indexOf(stackSize));
+        restartComboBox.setMaximumRowCount(16);
+        JLabel pegsLabel = new JLabel("Pegs?");
+        JComboBox<Integer> pegsComboBox = new JComboBox<>(numPegs);
+        pegsComboBox.setSelectedIndex(Arrays.asList(numPegs).indexOf(pegs));
+        JLabel rulesLabel = new JLabel("Rules?");
+        JComboBox<String> rulesComboBox = new JComboBox<>(ruleTitles);
+        rulesComboBox.setSelectedIndex(variants.indexOf(rules));
 
-        jPanel.add(jLabel, FlowLayout.LEFT);
-        jPanel.add(restartComboBox, FlowLayout.CENTER);
+        jPanel.add(jLabel);
+        jPanel.add(restartComboBox);
+        jPanel.add(pegsLabel);
+        jPanel.add(pegsComboBox);
+        jPanel.add(rulesLabel);
+        jPanel.add(rulesComboBox);
+        JButton restartButton = new JButton("Restart");
+        jPanel.add(restartButton);
 
         JDialog jDialog = new JDialog(this, "Restart Game");
         jDialog.add(jPanel);
-        jDialog.setSize(250, 80);
+        jDialog.getRootPane().setDefaultButton(restartButton);
+        jDialog.setSize(380, 115);
         jDialog.setResizable(false);
         jDialog.setLocationRelativeTo(this);
         jDialog.setVisible(true);
         jDialog.setModal(true);
 
-        restartComboBox.addActionListener(e -> {
-            JComboBox jComboBox = (JComboBox) e.getSource();
-            Integer numDisksSelected = (Integer) jComboBox.getSelectedItem();
-            log.info("Number of disks selected: {}", numDisksSelected);
-            restartGame(numDisksSelected);
+        // The combos only pick, so disks, pegs and rules can all be changed before restarting
+        restartButton.addActionListener(e -> {
+            Integer numDisksSelected = (Integer) restartComboBox.getSelectedItem();
+            Integer numPegsSelected = (Integer) pegsComboBox.getSelectedItem();
+            RuleVariant rulesSelected = variants.get(rulesComboBox.getSelectedIndex());
+            if (!rulesSelected.supportsPegs(numPegsSelected)) {
+                // The variants are played on three pegs
+                numPegsSelected = GameState.PEGS;
+            }
+            log.info("Number of disks selected: {}, pegs: {}, rules: {}",
+                    numDisksSelected, numPegsSelected, rulesSelected.name());
+            restartGame(numDisksSelected, numPegsSelected, rulesSelected);
             jDialog.dispose();
         });
     }
 
+    private void autoSolveDialog() {
+        if (stage.isAutoSolving()) {
+            stage.stopAutoSolve();
+            return;
+        }
+
+        String[] speeds = new String[] {"1 move/s", "4 moves/s", "60 moves/s", "Maximum"};
+        double[] movesPerSecond = new double[] {1, 4, 60, Double.POSITIVE_INFINITY};
+        int selected = JOptionPane.showOptionDialog(this,
+                "Finish the game from the current position. Speed?",
+                "Auto-solve", JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE,
+                null, speeds, speeds[1]);
+        if (selected < 0) {
+            return;
+        }
+        stage.autoSolve(movesPerSecond[selected]);
+    }
+
+    private void replayDialog() {
+        JFileChooser fileChooser = new JFileChooser(recordingsHome().toFile());
+        fileChooser.setFileFilter(new FileNameExtensionFilter("Game recordings", "tohr"));
+        if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+
+        GameRecording recording;
+        try {
+            recording = GameRecording.open(fileChooser.getSelectedFile().toPath());
+        } catch (IOException e) {
+            log.error("{}", e.getMessage());
+            JOptionPane.showMessageDialog(this, e.getMessage(), "Replay Game", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        String[] speeds = new String[] {"1x", "4x", "16x", "Jump to end"};
+        double[] speedFactors = new double[] {1, 4, 16, 0};
+        int selected = JOptionPane.showOptionDialog(this,
+                recording.moveCount() + " moves with " + recording.disks() + " disks. Replay speed?",
+                "Replay Game", JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE,
+                null, speeds, speeds[0]);
+        if (selected < 0) {
+            return;
+        }
+
+        restartGame(recording.disks(), GameState.PEGS, RuleVariants.CLASSIC);
+        stage.replay(recording, speedFactors[selected]);
+    }
+
+    // Read from the running totals of the store, never from its records
+    private void resultsDialog() {
+        if (statsStore == null) {
+            JOptionPane.showMessageDialog(this, "Results are not being saved.", "Results",
+                    JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+
+        List<CompletionStats> boards = statsStore.allStats();
+        String[] boardColumns = {"Disks", "Pegs", "Games", "Best", "Median", "90th", "Optimal", "Median extra moves"};
+        Object[][] boardRows = new Object[boards.size()][];
+        for (int i = 0; i < boards.size(); i++) {
+            CompletionStats board = boards.get(i);
+            boardRows[i] = new Object[] {board.disks(), board.pegs(), board.games(),
+                    formatDuration(board.durationPercentile(0)),
+                    formatDuration(board.durationPercentile(50)),
+                    formatDuration(board.durationPercentile(90)),
+                    board.optimalGames(), board.gapPercentile(50)};
+        }
+
+        CompletionStats current = statsStore.stats(stackSize, pegs);
+        List<GameResult> leaders = current == null ? List.of() : current.leaderboard();
+        String[] leaderColumns = {"#", "Time", "Moves", "Extra moves", "Invalid attempts"};
+        Object[][] leaderRows = new Object[leaders.size()][];
+        for (int i = 0; i < leaders.size(); i++) {
+            GameResult result = leaders.get(i);
+            leaderRows[i] = new Object[] {i + 1, formatDuration(result.durationNanos()), result.moves(),
+                    result.optimalityGap(), result.invalidAttempts()};
+        }
+
+        JPanel panel = new JPanel(new BorderLayout(0, 10));
+        panel.add(resultsTable(boardRows, boardColumns), BorderLayout.NORTH);
+        JPanel leaderPanel = new JPanel(new BorderLayout(0, 5));
+        leaderPanel.add(new JLabel("Fastest with " + stackSize + " disks on " + pegs + " pegs"), BorderLayout.NORTH);
+        leaderPanel.add(resultsTable(leaderRows, leaderColumns), BorderLayout.CENTER);
+        panel.add(leaderPanel, BorderLayout.CENTER);
+
+        JOptionPane.showMessageDialog(this, panel, "Results", JOptionPane.PLAIN_MESSAGE);
+    }
+
+    private JScrollPane resultsTable(Object[][] rows, String[] columns) {
+        JTable table = new JTable(rows, columns);
+        table.setEnabled(false);
+        JScrollPane scrollPane = new JScrollPane(table);
+        scrollPane.setPreferredSize(new Dimension(560, 140));
+        return scrollPane;
+    }
+
+    private static String formatDuration(long nanos) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        return String.format("%d:%02d.%03d", TimeUnit.MILLISECONDS.toMinutes(millis),
+                TimeUnit.MILLISECONDS.toSeconds(millis) % 60, millis % 1000);
+    }
+
+    private StatsStore openStatsStore() {
+        Path file = Path.of(System.getProperty("user.home"), ".toh", "results.tohc");
+        try {
+            Files.createDirectories(file.getParent());
+            return StatsStore.open(file);
+        } catch (IOException e) {
+            log.error("Results will not be saved: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    // Where new games are recorded, or null when recording is off
+    private Path recordingDirectory() {
+        if (!recordItem.isSelected()) {
+            return null;
+        }
+        Path directory = recordingsHome();
+        try {
+            Files.createDirectories(directory);
+            return directory;
+        } catch (IOException e) {
+            log.error("Cannot create {}: {}", directory, e.getMessage());
+            recordItem.setSelected(false);
+            return null;
+        }
+    }
+
+    private Path recordingsHome() {
+        return Path.of(System.getProperty("user.home"), ".toh", "recordings");
+    }
+
     private SimpleAttributeSet paragraphStyling() {
         SimpleAttributeSet styling = new SimpleAttributeSet();
         StyleConstants.setAlignment(styling, StyleConstants.ALIGN_JUSTIFIED);
@@ -146,19 +400,40 @@ public class TohWindow extends JFrame {
         for (int i = stackSize; i > 0; i--) {
             fillStack.push(i);
         }
-        return new Stage(fillStack);
+        Stage stage = new Stage(fillStack, pegs, rules);
+        stage.setStatsStore(statsStore);
+        return stage;
+    }
+
+    private void watchMoves() {
+        stage.addPropertyChangeListener(Stage.MOVES_PROPERTY, e -> updateScrubber());
+        updateScrubber();
+    }
+
+    private void updateScrubber() {
+        // The history holds at most MoveHistory.DEFAULT_MAX_MOVES moves, well within an int
+        updatingScrubber = true;
+        scrubber.setMaximum((int) (stage.historyEnd() - stage.historyStart()));
+        scrubber.setValue((int) (stage.moveCount() - stage.historyStart()));
+        updatingScrubber = false;
     }
 
-    private void restartGame(int stackSize) {
+    private void restartGame(int stackSize, int pegs, RuleVariant rules) {
         this.stackSize = stackSize;
+        this.pegs = pegs;
+        this.rules = rules;
 
         stagePanel.remove(stage);
+        SpriteCache.invalidate();
         stage = initializeStage();
+        stage.setMetricsOverlay(metricsItem.isSelected());
+        stage.setRecordingDirectory(recordingDirectory());
         stagePanel.add("Center", stage);
+        watchMoves();
         stagePanel.revalidate();
         stagePanel.repaint();
 
-        log.info("Game restarted with Stack Size of {}!", stackSize);
+        log.info("Game restarted with Stack Size of {} on {} pegs, {} rules!", stackSize, pegs, rules.name());
     }
 
 }
@@ -0,0 +1,64 @@
+package xyz.joseyamut.gfx;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Three frame images handed between one drawing and one showing thread
+ * without locks: the drawing thread owns the back image, the showing thread
+ * the front one, and finished frames are swapped through the middle slot.
+ * The showing thread always gets the newest finished frame, and neither
+ * thread ever waits for the other.
+ */
+final class TripleBuffer {
+
+    // Set in the middle slot while it holds a frame not yet shown
+    private static final int FRESH = 4;
+
+    private final BufferedImage[] images = new BufferedImage[3];
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private int back = 0;
+    private int front = 2;
+
+    /**
+     * Image to draw the next frame into, reallocated when the size changes.
+     * Drawing thread only.
+     */
+    BufferedImage back(int width, int height) {
+        BufferedImage image = images[back];
+        if (image == null || image.getWidth() != width || image.getHeight() != height) {
+            image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            images[back] = image;
+        }
+        return image;
+    }
+
+    /**
+     * Hands the frame drawn into the back image over to the showing thread.
+     */
+    void publish() {
+        back = middle.getAndSet(back | FRESH) & 3;
+    }
+
+    /**
+     * Lets go of all three images, after running out of memory for them.
+     * Drawing thread only; the showing thread gets null or a stale frame
+     * until the next one is published.
+     */
+    void clear() {
+        images[0] = null;
+        images[1] = null;
+        images[2] = null;
+    }
+
+    /**
+     * Newest finished frame, or null before the first one. Showing thread only.
+     */
+    BufferedImage front() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & 3;
+        }
+        return images[front];
+    }
+
+}
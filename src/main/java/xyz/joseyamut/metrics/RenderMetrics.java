@@ -0,0 +1,248 @@
+package xyz.joseyamut.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Frame and input timings for the stage. Collection is off unless the
+ * {@code toh.metrics} system property is set or {@link #setEnabled(boolean)}
+ * is called, and every hook is a single volatile read while it is off. Once
+ * enabled the numbers are published as the {@code xyz.joseyamut:type=RenderMetrics}
+ * MBean and summarised through the logger every {@code toh.metrics.interval}
+ * seconds (default 10).
+ */
+@Slf4j
+public class RenderMetrics implements RenderMetricsMBean {
+
+    private static final RenderMetrics INSTANCE = new RenderMetrics();
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private static volatile boolean enabled;
+    private static boolean published;
+
+    private final LatencyHistogram frameTimes = new LatencyHistogram();
+    private final LatencyHistogram moveLatencies = new LatencyHistogram();
+    // Null when the runtime cannot count a thread's allocations
+    private final LongSupplier threadAllocatedBytes;
+    private volatile long frames;
+    private volatile long allocatedBytes;
+    private volatile long validMoves;
+    private volatile long invalidMoves;
+    private volatile double framesPerSecond;
+    // Touched by the render thread only
+    private long frameAllocationStart;
+    private long windowStart;
+    private long windowFrames;
+    // Touched by the EDT only
+    private long movePressedAt;
+
+    static {
+        if (Boolean.getBoolean("toh.metrics")) {
+            setEnabled(true);
+        }
+    }
+
+    private RenderMetrics() {
+        LongSupplier counter;
+        try {
+            counter = AllocationCounter.currentThread();
+        } catch (LinkageError e) {
+            // A runtime image linked without jdk.management
+            log.info("Allocation counting is off, com.sun.management is missing");
+            counter = null;
+        }
+        threadAllocatedBytes = counter;
+    }
+
+    public static RenderMetrics get() {
+        return INSTANCE;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static synchronized void setEnabled(boolean enabled) {
+        RenderMetrics.enabled = enabled;
+        if (enabled && !published) {
+            published = true;
+            INSTANCE.publish();
+        }
+    }
+
+    public static long frameStart() {
+        if (!enabled) {
+            return 0;
+        }
+        INSTANCE.frameAllocationStart = INSTANCE.allocatedByThisThread();
+        return System.nanoTime();
+    }
+
+    public static void frameEnd(long frameStart) {
+        if (frameStart == 0) {
+            return;
+        }
+        INSTANCE.recordFrame(frameStart, System.nanoTime());
+    }
+
+    public static void movePressed() {
+        if (enabled) {
+            INSTANCE.movePressedAt = System.nanoTime();
+        }
+    }
+
+    public static void moveApplied() {
+        if (enabled) {
+            INSTANCE.recordMove();
+        }
+    }
+
+    public static void invalidMove() {
+        if (enabled) {
+            INSTANCE.invalidMoves++;
+        }
+    }
+
+    private void recordFrame(long start, long end) {
+        frameTimes.record(end - start);
+        frames++;
+        if (frameAllocationStart >= 0) {
+            allocatedBytes += allocatedByThisThread() - frameAllocationStart;
+        }
+
+        windowFrames++;
+        long window = end - windowStart;
+        if (window >= NANOS_PER_SECOND) {
+            framesPerSecond = windowStart == 0 ? 0 : windowFrames * (double) NANOS_PER_SECOND / window;
+            windowStart = end;
+            windowFrames = 0;
+        }
+    }
+
+    private void recordMove() {
+        validMoves++;
+        if (movePressedAt != 0) {
+            moveLatencies.record(System.nanoTime() - movePressedAt);
+            movePressedAt = 0;
+        }
+    }
+
+    private long allocatedByThisThread() {
+        return threadAllocatedBytes == null ? -1 : threadAllocatedBytes.getAsLong();
+    }
+
+    private void publish() {
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(this, new ObjectName("xyz.joseyamut:type=RenderMetrics"));
+        } catch (Exception e) {
+            log.warn("Could not register metrics MBean: {}", e.getMessage());
+        }
+
+        long interval = Long.getLong("toh.metrics.interval", 10);
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "toh-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::logSummary, interval, interval, TimeUnit.SECONDS);
+    }
+
+    private void logSummary() {
+        if (!enabled) {
+            return;
+        }
+        log.info("Frames: {} ({} fps), frame time p50/p90/p99/max: {}/{}/{}/{} us, allocated/frame: {} B",
+                getFrames(), String.format("%.1f", getFramesPerSecond()),
+                getFrameTimeP50Micros(), getFrameTimeP90Micros(), getFrameTimeP99Micros(), getFrameTimeMaxMicros(),
+                getAllocatedBytesPerFrame());
+        log.info("Moves: {} valid, {} invalid, press to move p50/p99: {}/{} us",
+                getValidMoves(), getInvalidMoves(), getMoveLatencyP50Micros(), getMoveLatencyP99Micros());
+    }
+
+    @Override
+    public long getFrames() {
+        return frames;
+    }
+
+    @Override
+    public double getFramesPerSecond() {
+        return framesPerSecond;
+    }
+
+    @Override
+    public long getFrameTimeP50Micros() {
+        return TimeUnit.NANOSECONDS.toMicros(frameTimes.percentile(50));
+    }
+
+    @Override
+    public long getFrameTimeP90Micros() {
+        return TimeUnit.NANOSECONDS.toMicros(frameTimes.percentile(90));
+    }
+
+    @Override
+    public long getFrameTimeP99Micros() {
+        return TimeUnit.NANOSECONDS.toMicros(frameTimes.percentile(99));
+    }
+
+    @Override
+    public long getFrameTimeMaxMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(frameTimes.max());
+    }
+
+    @Override
+    public long getAllocatedBytesPerFrame() {
+        long frames = this.frames;
+        return frames == 0 || threadAllocatedBytes == null ? 0 : allocatedBytes / frames;
+    }
+
+    @Override
+    public long getMoveLatencyP50Micros() {
+        return TimeUnit.NANOSECONDS.toMicros(moveLatencies.percentile(50));
+    }
+
+    @Override
+    public long getMoveLatencyP99Micros() {
+        return TimeUnit.NANOSECONDS.toMicros(moveLatencies.percentile(99));
+    }
+
+    @Override
+    public long getValidMoves() {
+        return validMoves;
+    }
+
+    @Override
+    public long getInvalidMoves() {
+        return invalidMoves;
+    }
+
+    @Override
+    public void reset() {
+        frameTimes.reset();
+        moveLatencies.reset();
+        frames = 0;
+        allocatedBytes = 0;
+        validMoves = 0;
+        invalidMoves = 0;
+        framesPerSecond = 0;
+    }
+
+    // The only use of com.sun.management, loaded apart so RenderMetrics still
+    // loads when the jdk.management module is not in the runtime
+    private static final class AllocationCounter {
+
+        static LongSupplier currentThread() {
+            java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            return bean instanceof com.sun.management.ThreadMXBean sunBean
+                    && sunBean.isThreadAllocatedMemorySupported() ? sunBean::getCurrentThreadAllocatedBytes : null;
+        }
+
+    }
+
+}
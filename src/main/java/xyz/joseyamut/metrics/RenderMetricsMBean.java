@@ -0,0 +1,29 @@
+package xyz.joseyamut.metrics;
+
+public interface RenderMetricsMBean {
+
+    long getFrames();
+
+    double getFramesPerSecond();
+
+    long getFrameTimeP50Micros();
+
+    long getFrameTimeP90Micros();
+
+    long getFrameTimeP99Micros();
+
+    long getFrameTimeMaxMicros();
+
+    long getAllocatedBytesPerFrame();
+
+    long getMoveLatencyP50Micros();
+
+    long getMoveLatencyP99Micros();
+
+    long getValidMoves();
+
+    long getInvalidMoves();
+
+    void reset();
+
+}
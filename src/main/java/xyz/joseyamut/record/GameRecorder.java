@@ -0,0 +1,112 @@
+package xyz.joseyamut.record;
+
+import xyz.joseyamut.util.MoveCodes;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends moves to a recording file through a memory mapping that doubles
+ * in size as it fills, up to the 2 GB one mapping can hold. The header's move
+ * count and data end are updated on every move, so a recording cut short by
+ * a crash is still readable up to its last complete move.
+ * <p>
+ * The file keeps the size of its last mapping, zero padded after the data
+ * end. A live mapping cannot be let go of portably, and Windows refuses to
+ * truncate a mapped file, so readers stop at the data end instead.
+ */
+public class GameRecorder implements Closeable {
+
+    private static final int INITIAL_MAPPING = 64 * 1024;
+
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long moveCount;
+    private long lastMoveAt;
+    private int blockPosition;
+    private long block;
+
+    public GameRecorder(Path file, int disks) throws IOException {
+        this(file, disks, System.currentTimeMillis());
+    }
+
+    public GameRecorder(Path file, int disks, long startedAt) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        map(INITIAL_MAPPING);
+        buffer.putInt(RecordingFormat.MAGIC_OFFSET, RecordingFormat.MAGIC);
+        buffer.putShort(RecordingFormat.VERSION_OFFSET, RecordingFormat.VERSION);
+        buffer.put(RecordingFormat.DISKS_OFFSET, (byte) disks);
+        buffer.put(RecordingFormat.PEGS_OFFSET, (byte) 3);
+        buffer.putLong(RecordingFormat.STARTED_OFFSET, startedAt);
+        buffer.position(RecordingFormat.HEADER_SIZE);
+        updateHeader();
+        lastMoveAt = startedAt;
+    }
+
+    public void append(int from, int to) throws IOException {
+        append(from, to, System.currentTimeMillis());
+    }
+
+    public void append(int from, int to, long timestamp) throws IOException {
+        if (buffer.remaining() < RecordingFormat.MAX_MOVE_SIZE) {
+            if (buffer.capacity() == Integer.MAX_VALUE) {
+                throw new IOException("Recording is full after " + moveCount + " moves");
+            }
+            map(Math.min(buffer.capacity() * 2L, Integer.MAX_VALUE));
+        }
+
+        int slot = (int) (moveCount % MoveCodes.PER_LONG);
+        if (slot == 0) {
+            blockPosition = buffer.position();
+            block = MoveCodes.EMPTY_LONG;
+            buffer.position(blockPosition + Long.BYTES);
+        }
+        block = MoveCodes.withCode(block, slot, MoveCodes.encode(from, to));
+        buffer.putLong(blockPosition, block);
+
+        long delta = Math.max(0, timestamp - lastMoveAt);
+        lastMoveAt = timestamp;
+        while ((delta & ~0x7FL) != 0) {
+            buffer.put((byte) ((delta & 0x7F) | 0x80));
+            delta >>>= 7;
+        }
+        buffer.put((byte) delta);
+
+        moveCount++;
+        updateHeader();
+    }
+
+    public long moveCount() {
+        return moveCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            buffer.force();
+            buffer = null;
+        } finally {
+            channel.close();
+        }
+    }
+
+    // Data end first, so a reader never sees a move count past the data
+    private void updateHeader() {
+        buffer.putLong(RecordingFormat.DATA_END_OFFSET, buffer.position());
+        buffer.putLong(RecordingFormat.MOVE_COUNT_OFFSET, moveCount);
+    }
+
+    private void map(long size) throws IOException {
+        int position = buffer == null ? 0 : buffer.position();
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.position(position);
+    }
+
+}
@@ -0,0 +1,178 @@
+package xyz.joseyamut.record;
+
+import xyz.joseyamut.util.GameState;
+import xyz.joseyamut.util.MoveCodes;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only view of a recording file, memory mapped on open.
+ */
+public class GameRecording {
+
+    private final Path file;
+    private final ByteBuffer buffer;
+    private final int disks;
+    private final long startedAt;
+    private final long moveCount;
+    private final int dataEnd;
+
+    private GameRecording(Path file, ByteBuffer buffer) throws IOException {
+        this.file = file;
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.limit() < RecordingFormat.HEADER_SIZE
+                || buffer.getInt(RecordingFormat.MAGIC_OFFSET) != RecordingFormat.MAGIC) {
+            throw new IOException("Not a game recording: " + file);
+        }
+        if (buffer.getShort(RecordingFormat.VERSION_OFFSET) != RecordingFormat.VERSION) {
+            throw new IOException("Unsupported recording version "
+                    + buffer.getShort(RecordingFormat.VERSION_OFFSET) + ": " + file);
+        }
+        disks = buffer.get(RecordingFormat.DISKS_OFFSET) & 0xFF;
+        if (disks < 1 || disks > GameState.MAX_DISKS) {
+            throw new IOException("Recording has " + disks + " disks: " + file);
+        }
+        startedAt = buffer.getLong(RecordingFormat.STARTED_OFFSET);
+        moveCount = buffer.getLong(RecordingFormat.MOVE_COUNT_OFFSET);
+        long end = buffer.getLong(RecordingFormat.DATA_END_OFFSET);
+        if (moveCount < 0 || end < RecordingFormat.HEADER_SIZE) {
+            throw new IOException("Damaged recording header: " + file);
+        }
+        dataEnd = (int) Math.min(end, buffer.limit());
+    }
+
+    public static GameRecording open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new GameRecording(file, map(file, channel));
+        }
+    }
+
+    /**
+     * Reads the file into {@code scratch} if it fits, and maps it otherwise.
+     * The recording is only valid until the scratch buffer is reused.
+     */
+    public static GameRecording read(Path file, ByteBuffer scratch) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > scratch.capacity()) {
+                return new GameRecording(file, map(file, channel));
+            }
+            scratch.clear();
+            while (scratch.position() < size && channel.read(scratch) >= 0) {
+                // Keep reading until the whole file is in the buffer
+            }
+            scratch.flip();
+            return new GameRecording(file, scratch);
+        }
+    }
+
+    // Recordings are written through one mapping, so a larger file is not one
+    private static ByteBuffer map(Path file, FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Recording is too large: " + file);
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    public int disks() {
+        return disks;
+    }
+
+    public long startedAt() {
+        return startedAt;
+    }
+
+    public long moveCount() {
+        return moveCount;
+    }
+
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Forward-only walk over the recorded moves; one instance is reused for
+     * every move. Every read is bounded by the data end in the header, and a
+     * file that ends early or holds a damaged move code throws.
+     */
+    public class Cursor {
+
+        private int position = RecordingFormat.HEADER_SIZE;
+        private long index;
+        private long block;
+        private int from;
+        private int to;
+        private long delta;
+
+        public boolean next() throws IOException {
+            if (index >= moveCount) {
+                return false;
+            }
+            int slot = (int) (index % MoveCodes.PER_LONG);
+            if (slot == 0) {
+                if (dataEnd - position < Long.BYTES) {
+                    throw cutShort();
+                }
+                block = buffer.getLong(position);
+                position += Long.BYTES;
+            }
+            int code = MoveCodes.codeAt(block, slot);
+            if (!MoveCodes.isValid(code)) {
+                throw new IOException("Damaged move " + index + ": " + file);
+            }
+            from = MoveCodes.from(code);
+            to = MoveCodes.to(code);
+
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                if (position >= dataEnd) {
+                    throw cutShort();
+                }
+                if (shift > 63) {
+                    throw new IOException("Damaged pause after move " + index + ": " + file);
+                }
+                b = buffer.get(position++);
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            delta = value;
+
+            index++;
+            return true;
+        }
+
+        public long index() {
+            return index - 1;
+        }
+
+        public int from() {
+            return from;
+        }
+
+        public int to() {
+            return to;
+        }
+
+        public long delta() {
+            return delta;
+        }
+
+        private IOException cutShort() {
+            return new IOException("Recording is cut short after " + index + " of " + moveCount + " moves: " + file);
+        }
+
+    }
+
+}
@@ -0,0 +1,30 @@
+package xyz.joseyamut.record;
+
+/**
+ * Layout of a game recording. A 32 byte header is followed by blocks of up to
+ * {@link xyz.joseyamut.util.MoveCodes#PER_LONG} moves: one long holding their
+ * three bit codes, then one unsigned LEB128 varint per move with the
+ * milliseconds elapsed since the previous move (or since the recording
+ * started, for the first one).
+ */
+final class RecordingFormat {
+
+    static final int MAGIC = 0x544F4852; // "TOHR"
+    static final short VERSION = 1;
+
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 4;
+    static final int DISKS_OFFSET = 6;
+    static final int PEGS_OFFSET = 7;
+    static final int STARTED_OFFSET = 8;
+    static final int MOVE_COUNT_OFFSET = 16;
+    static final int DATA_END_OFFSET = 24;
+    static final int HEADER_SIZE = 32;
+
+    // Block word plus the longest varint
+    static final int MAX_MOVE_SIZE = Long.BYTES + 10;
+
+    private RecordingFormat() {
+    }
+
+}
@@ -0,0 +1,170 @@
+package xyz.joseyamut.record;
+
+import xyz.joseyamut.solver.IterativeSolver;
+import xyz.joseyamut.solver.MoveConsumer;
+import xyz.joseyamut.solver.OptimalSolution;
+import xyz.joseyamut.util.MoveCodes;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes the whole optimal solution in the {@link SolutionFormat} layout.
+ * The file is sized up front and cut into shards of equal length; worker
+ * threads take the next shard, generate its moves straight from its first
+ * index into a direct buffer of their own and write it at its offset, so
+ * shards land in any order and nothing is shared but the shard counter.
+ * The header goes in last, once every shard is on disk.
+ */
+public class SolutionExporter {
+
+    // 2^40 moves take about 420 GB
+    public static final int MAX_DISKS = 40;
+
+    // 1 MB per write
+    private static final int SHARD_WORDS = 1 << 17;
+
+    private SolutionExporter() {
+    }
+
+    /**
+     * Exports the solution for {@code disks} disks and returns its checksum.
+     */
+    public static long export(Path file, int disks, int threads) throws IOException, InterruptedException {
+        if (disks < 1 || disks > MAX_DISKS) {
+            throw new IllegalArgumentException("Disks must be between 1 and " + MAX_DISKS + ": " + disks);
+        }
+        long moves = IterativeSolver.moveCount(disks);
+        long words = SolutionFormat.wordCount(moves);
+        long shards = (words + SHARD_WORDS - 1) / SHARD_WORDS;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            // One byte at the end reserves the whole file before any shard is written
+            writeFully(channel, ByteBuffer.allocate(1), SolutionFormat.HEADER_SIZE + words * Long.BYTES - 1);
+
+            AtomicLong nextShard = new AtomicLong();
+            int workers = (int) Math.min(threads, shards);
+            ExecutorService pool = Executors.newFixedThreadPool(workers, r -> {
+                Thread thread = new Thread(r, "toh-exporter");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long checksum = 0;
+            try {
+                List<Future<Long>> futures = new ArrayList<>(workers);
+                for (int i = 0; i < workers; i++) {
+                    futures.add(pool.submit(() -> {
+                        ShardWriter writer = new ShardWriter(channel, disks, moves, words);
+                        long sum = 0;
+                        for (long shard; (shard = nextShard.getAndIncrement()) < shards; ) {
+                            sum += writer.write(shard);
+                        }
+                        return sum;
+                    }));
+                }
+                for (Future<Long> future : futures) {
+                    checksum += future.get();
+                }
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException io) {
+                    throw io;
+                }
+                throw new IllegalStateException(e.getCause());
+            } finally {
+                pool.shutdownNow();
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(SolutionFormat.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(SolutionFormat.MAGIC_OFFSET, SolutionFormat.MAGIC);
+            header.putShort(SolutionFormat.VERSION_OFFSET, SolutionFormat.VERSION);
+            header.put(SolutionFormat.DISKS_OFFSET, (byte) disks);
+            header.put(SolutionFormat.PEGS_OFFSET, (byte) 3);
+            header.putLong(SolutionFormat.MOVE_COUNT_OFFSET, moves);
+            header.putLong(SolutionFormat.CHECKSUM_OFFSET, checksum);
+            writeFully(channel, header, 0);
+            channel.force(false);
+            return checksum;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    /**
+     * One worker's buffer, reused for every shard it writes, and the word
+     * being packed.
+     */
+    private static final class ShardWriter implements MoveConsumer {
+
+        private final FileChannel channel;
+        private final int disks;
+        private final long moves;
+        private final long words;
+        private final ByteBuffer buffer =
+                ByteBuffer.allocateDirect(SHARD_WORDS * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        private long word;
+        private int shift;
+        private long index;
+        private long checksum;
+
+        ShardWriter(FileChannel channel, int disks, long moves, long words) {
+            this.channel = channel;
+            this.disks = disks;
+            this.moves = moves;
+            this.words = words;
+        }
+
+        long write(long shard) throws IOException {
+            long firstWord = shard * SHARD_WORDS;
+            long endWord = Math.min(firstWord + SHARD_WORDS, words);
+            buffer.clear();
+            word = 0;
+            shift = 0;
+            index = firstWord;
+            checksum = 0;
+            OptimalSolution.solve(disks, firstWord * MoveCodes.PER_LONG,
+                    Math.min(endWord * MoveCodes.PER_LONG, moves), this);
+            if (shift > 0) {
+                // Pad the last word of the solution
+                word |= MoveCodes.EMPTY_LONG & (-1L << shift);
+                flush();
+            }
+            buffer.flip();
+            writeFully(channel, buffer, SolutionFormat.HEADER_SIZE + firstWord * Long.BYTES);
+            return checksum;
+        }
+
+        @Override
+        public void accept(int disk, int from, int to) {
+            word |= (long) MoveCodes.encode(from, to) << shift;
+            shift += MoveCodes.BITS;
+            if (shift == MoveCodes.PER_LONG * MoveCodes.BITS) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            buffer.putLong(word);
+            checksum += SolutionFormat.mix(word, index++);
+            word = 0;
+            shift = 0;
+        }
+
+    }
+
+}
@@ -0,0 +1,146 @@
+package xyz.joseyamut.record;
+
+import xyz.joseyamut.util.GameState;
+import xyz.joseyamut.util.MoveCodes;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Header of an exported solution, and a sequential scan of its moves. The
+ * moves are read through a caller's buffer rather than mapped, since the
+ * larger exports do not fit in one mapping.
+ */
+public class SolutionFile {
+
+    private final Path file;
+    private final int disks;
+    private final long moveCount;
+    private final long checksum;
+
+    private SolutionFile(Path file, int disks, long moveCount, long checksum) {
+        this.file = file;
+        this.disks = disks;
+        this.moveCount = moveCount;
+        this.checksum = checksum;
+    }
+
+    /**
+     * Whether the file starts like an exported solution.
+     */
+    public static boolean isSolution(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) {
+                // Keep reading until the magic is in
+            }
+            return !magic.hasRemaining() && magic.getInt(0) == SolutionFormat.MAGIC;
+        }
+    }
+
+    public static SolutionFile open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(SolutionFormat.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // Keep reading until the header is in
+            }
+            if (header.hasRemaining() || header.getInt(SolutionFormat.MAGIC_OFFSET) != SolutionFormat.MAGIC) {
+                throw new IOException("Not an exported solution: " + file);
+            }
+            if (header.getShort(SolutionFormat.VERSION_OFFSET) != SolutionFormat.VERSION) {
+                throw new IOException("Unsupported solution version "
+                        + header.getShort(SolutionFormat.VERSION_OFFSET) + ": " + file);
+            }
+            long moveCount = header.getLong(SolutionFormat.MOVE_COUNT_OFFSET);
+            if (moveCount < 0 || channel.size() < SolutionFormat.HEADER_SIZE
+                    + SolutionFormat.wordCount(moveCount) * Long.BYTES) {
+                throw new IOException("Solution is cut short: " + file);
+            }
+            int disks = header.get(SolutionFormat.DISKS_OFFSET) & 0xFF;
+            if (disks < 1 || disks > GameState.MAX_DISKS) {
+                throw new IOException("Solution has " + disks + " disks: " + file);
+            }
+            return new SolutionFile(file, disks, moveCount,
+                    header.getLong(SolutionFormat.CHECKSUM_OFFSET));
+        }
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    public int disks() {
+        return disks;
+    }
+
+    public long moveCount() {
+        return moveCount;
+    }
+
+    public long checksum() {
+        return checksum;
+    }
+
+    @FunctionalInterface
+    public interface MoveSink {
+
+        /**
+         * Returns false to stop the scan.
+         */
+        boolean accept(int from, int to);
+
+    }
+
+    /**
+     * Feeds every move to {@code sink} in order, reading through
+     * {@code scratch}. Returns false when the sink stopped the scan, and
+     * throws when a move code is damaged or the checksum does not match.
+     */
+    public boolean scan(ByteBuffer scratch, MoveSink sink) throws IOException {
+        scratch.order(ByteOrder.LITTLE_ENDIAN);
+        long sum = 0;
+        long index = 0;
+        long remaining = moveCount;
+        long position = SolutionFormat.HEADER_SIZE;
+        long end = SolutionFormat.HEADER_SIZE + SolutionFormat.wordCount(moveCount) * Long.BYTES;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (position < end) {
+                scratch.clear();
+                scratch.limit((int) Math.min(scratch.capacity() & ~(Long.BYTES - 1), end - position));
+                while (scratch.hasRemaining()) {
+                    int read = channel.read(scratch, position + scratch.position());
+                    if (read < 0) {
+                        throw new IOException("Solution is cut short: " + file);
+                    }
+                }
+                position += scratch.limit();
+                scratch.flip();
+
+                while (scratch.hasRemaining()) {
+                    long word = scratch.getLong();
+                    sum += SolutionFormat.mix(word, index++);
+                    int slots = (int) Math.min(MoveCodes.PER_LONG, remaining);
+                    for (int slot = 0; slot < slots; slot++) {
+                        int code = MoveCodes.codeAt(word, slot);
+                        if (!MoveCodes.isValid(code)) {
+                            throw new IOException("Damaged move " + (moveCount - remaining + slot) + ": " + file);
+                        }
+                        if (!sink.accept(MoveCodes.from(code), MoveCodes.to(code))) {
+                            return false;
+                        }
+                    }
+                    remaining -= slots;
+                }
+            }
+        }
+        if (sum != checksum) {
+            throw new IOException("Checksum does not match: " + file);
+        }
+        return true;
+    }
+
+}
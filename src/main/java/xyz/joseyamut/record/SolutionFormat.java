@@ -0,0 +1,40 @@
+package xyz.joseyamut.record;
+
+import xyz.joseyamut.util.MoveCodes;
+
+/**
+ * Layout of an exported solution. A 32 byte header is followed by one long
+ * per {@link MoveCodes#PER_LONG} moves, holding their
+ * three bit codes; unused slots of the last long hold the empty code. The
+ * checksum is the wrapping sum of {@link #mix(long, long)} over every long,
+ * so shards written apart add up to the same value.
+ */
+final class SolutionFormat {
+
+    static final int MAGIC = 0x544F4853; // "TOHS"
+    static final short VERSION = 1;
+
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 4;
+    static final int DISKS_OFFSET = 6;
+    static final int PEGS_OFFSET = 7;
+    static final int MOVE_COUNT_OFFSET = 8;
+    static final int CHECKSUM_OFFSET = 16;
+    static final int HEADER_SIZE = 32;
+
+    private SolutionFormat() {
+    }
+
+    static long wordCount(long moves) {
+        return (moves + MoveCodes.PER_LONG - 1) / MoveCodes.PER_LONG;
+    }
+
+    // SplitMix64 finalizer over the word and its index, so swapped words show
+    static long mix(long word, long index) {
+        long z = word + index * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+}
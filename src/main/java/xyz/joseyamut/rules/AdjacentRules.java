@@ -0,0 +1,98 @@
+package xyz.joseyamut.rules;
+
+import xyz.joseyamut.solver.MoveConsumer;
+import xyz.joseyamut.util.GameState;
+import xyz.joseyamut.validate.MoveValidator;
+import xyz.joseyamut.validate.Violation;
+
+/**
+ * The pegs stand in a row and disks only move to a neighbouring one, never
+ * straight between X and Z. The solution takes 3^n - 1 moves and follows the
+ * ternary reflected Gray code: move k moves the disk one above the number of
+ * trailing zero digits of k in base 3, and every disk just walks X, Y, Z, Y,
+ * X... from one end to the other.
+ */
+public final class AdjacentRules implements RuleVariant {
+
+    // 3^41 - 1 no longer fits an unsigned long
+    private static final int MAX_DISKS = 40;
+
+    // Where a disk goes on each move of its X, Y, Z, Y walk
+    private static final int[] WALK_FROM = {0, 1, 2, 1};
+    private static final int[] WALK_TO = {1, 2, 1, 0};
+
+    AdjacentRules() {
+    }
+
+    @Override
+    public String name() {
+        return "adjacent";
+    }
+
+    @Override
+    public String title() {
+        return "Adjacent (neighbouring pegs only)";
+    }
+
+    @Override
+    public int maxDisks() {
+        return MAX_DISKS;
+    }
+
+    @Override
+    public boolean supportsPegs(int pegs) {
+        return pegs == GameState.PEGS;
+    }
+
+    @Override
+    public Violation check(GameState state, int from, int to) {
+        Violation violation = MoveValidator.check(state, from, to);
+        if (violation != Violation.NONE) {
+            return violation;
+        }
+        return Math.abs(from - to) == 1 ? Violation.NONE : Violation.NOT_ADJACENT;
+    }
+
+    @Override
+    public long moveCount(int disks) {
+        checkDisks(disks);
+        long count = 1;
+        for (int i = 0; i < disks; i++) {
+            count *= 3;
+        }
+        return count - 1;
+    }
+
+    @Override
+    public void solve(int disks, MoveConsumer consumer) {
+        long last = moveCount(disks);
+        if (disks == 0) {
+            return;
+        }
+        // Moves made so far by each disk, mod 4, and k in base 3
+        int[] walked = new int[disks + 1];
+        byte[] digits = new byte[disks + 1];
+
+        long k = 0;
+        do {
+            k++;
+            // The digits that roll over are the trailing zeros of k
+            int digit = 0;
+            while (digits[digit] == 2) {
+                digits[digit++] = 0;
+            }
+            digits[digit]++;
+            int disk = digit + 1;
+            int step = walked[disk];
+            walked[disk] = (step + 1) & 3;
+            consumer.accept(disk, WALK_FROM[step], WALK_TO[step]);
+        } while (k != last);
+    }
+
+    private static void checkDisks(int disks) {
+        if (disks < 0 || disks > MAX_DISKS) {
+            throw new IllegalArgumentException("Disk count must be between 0 and " + MAX_DISKS + ": " + disks);
+        }
+    }
+
+}
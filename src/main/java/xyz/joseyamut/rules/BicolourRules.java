@@ -0,0 +1,63 @@
+package xyz.joseyamut.rules;
+
+import xyz.joseyamut.solver.IterativeSolver;
+import xyz.joseyamut.solver.MoveConsumer;
+import xyz.joseyamut.util.GameState;
+import xyz.joseyamut.validate.MoveValidator;
+import xyz.joseyamut.validate.Violation;
+
+/**
+ * Odd and even disks have different colours, and a disk may never be put
+ * straight onto one of its own colour. The classic solution only ever puts
+ * a disk on an empty peg or on one of the other parity, so it is the
+ * shortest solution here too.
+ */
+public final class BicolourRules implements RuleVariant {
+
+    BicolourRules() {
+    }
+
+    @Override
+    public String name() {
+        return "bicolour";
+    }
+
+    @Override
+    public String title() {
+        return "Bicolour (never onto the same colour)";
+    }
+
+    @Override
+    public int maxDisks() {
+        return IterativeSolver.MAX_DISKS;
+    }
+
+    @Override
+    public boolean supportsPegs(int pegs) {
+        return pegs == GameState.PEGS;
+    }
+
+    @Override
+    public Violation check(GameState state, int from, int to) {
+        Violation violation = MoveValidator.check(state, from, to);
+        if (violation != Violation.NONE) {
+            return violation;
+        }
+        int target = state.topDisk(to);
+        if (target != 0 && ((target ^ state.topDisk(from)) & 1) == 0) {
+            return Violation.SAME_COLOUR;
+        }
+        return Violation.NONE;
+    }
+
+    @Override
+    public long moveCount(int disks) {
+        return IterativeSolver.moveCount(disks);
+    }
+
+    @Override
+    public void solve(int disks, MoveConsumer consumer) {
+        IterativeSolver.solve(disks, consumer);
+    }
+
+}
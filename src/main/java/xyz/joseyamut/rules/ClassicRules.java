@@ -0,0 +1,52 @@
+package xyz.joseyamut.rules;
+
+import xyz.joseyamut.solver.IterativeSolver;
+import xyz.joseyamut.solver.MoveConsumer;
+import xyz.joseyamut.util.GameState;
+import xyz.joseyamut.validate.MoveValidator;
+import xyz.joseyamut.validate.Violation;
+
+/**
+ * Any peg to any peg, on three or four pegs.
+ */
+public final class ClassicRules implements RuleVariant {
+
+    ClassicRules() {
+    }
+
+    @Override
+    public String name() {
+        return "classic";
+    }
+
+    @Override
+    public String title() {
+        return "Classic";
+    }
+
+    @Override
+    public int maxDisks() {
+        return IterativeSolver.MAX_DISKS;
+    }
+
+    @Override
+    public boolean supportsPegs(int pegs) {
+        return pegs >= GameState.PEGS && pegs <= GameState.MAX_PEGS;
+    }
+
+    @Override
+    public Violation check(GameState state, int from, int to) {
+        return MoveValidator.check(state, from, to);
+    }
+
+    @Override
+    public long moveCount(int disks) {
+        return IterativeSolver.moveCount(disks);
+    }
+
+    @Override
+    public void solve(int disks, MoveConsumer consumer) {
+        IterativeSolver.solve(disks, consumer);
+    }
+
+}
@@ -0,0 +1,120 @@
+package xyz.joseyamut.rules;
+
+import xyz.joseyamut.solver.MoveConsumer;
+import xyz.joseyamut.util.GameState;
+import xyz.joseyamut.validate.MoveValidator;
+import xyz.joseyamut.validate.Violation;
+
+/**
+ * Disks only move clockwise, X to Y, Y to Z and Z to X. Moving a tower one
+ * peg on takes Q(n) = 2R(n - 1) + 1 moves and two pegs on, from X to Z,
+ * R(n) = 2R(n - 1) + Q(n - 1) + 2, about 2.73^n.
+ */
+public final class CyclicRules implements RuleVariant {
+
+    // R(45) no longer fits an unsigned long
+    private static final int MAX_DISKS = 44;
+
+    // A frame moves its tower one or two pegs on
+    private static final byte ONE_STEP = 1;
+    private static final byte TWO_STEPS = 2;
+
+    CyclicRules() {
+    }
+
+    @Override
+    public String name() {
+        return "cyclic";
+    }
+
+    @Override
+    public String title() {
+        return "Cyclic (clockwise only)";
+    }
+
+    @Override
+    public int maxDisks() {
+        return MAX_DISKS;
+    }
+
+    @Override
+    public boolean supportsPegs(int pegs) {
+        return pegs == GameState.PEGS;
+    }
+
+    @Override
+    public Violation check(GameState state, int from, int to) {
+        Violation violation = MoveValidator.check(state, from, to);
+        if (violation != Violation.NONE) {
+            return violation;
+        }
+        return next(from) == to ? Violation.NONE : Violation.WRONG_DIRECTION;
+    }
+
+    @Override
+    public long moveCount(int disks) {
+        checkDisks(disks);
+        long oneStep = 0;
+        long twoSteps = 0;
+        for (int n = 1; n <= disks; n++) {
+            long q = 2 * twoSteps + 1;
+            twoSteps = 2 * twoSteps + oneStep + 2;
+            oneStep = q;
+        }
+        return twoSteps;
+    }
+
+    /**
+     * Runs the two mutually recursive tower moves on an explicit stack with
+     * one frame per tower size, so nothing is allocated after the start.
+     */
+    @Override
+    public void solve(int disks, MoveConsumer consumer) {
+        checkDisks(disks);
+        byte[] kind = new byte[disks + 1];
+        byte[] from = new byte[disks + 1];
+        byte[] phase = new byte[disks + 1];
+
+        int n = disks;
+        kind[n] = TWO_STEPS;
+        while (n <= disks && n > 0) {
+            int a = from[n];
+            int step = phase[n]++;
+            int smaller = n - 1;
+            if (step == 0) {
+                // Smaller disks out of the way, two pegs on in both cases
+                n = call(kind, from, phase, smaller, TWO_STEPS, a, n);
+            } else if (step == 1) {
+                consumer.accept(n, a, next(a));
+                n = call(kind, from, phase, smaller, kind[n] == ONE_STEP ? TWO_STEPS : ONE_STEP, next(next(a)), n);
+            } else if (step == 2 && kind[n] == TWO_STEPS) {
+                consumer.accept(n, next(a), next(next(a)));
+                n = call(kind, from, phase, smaller, TWO_STEPS, a, n);
+            } else {
+                n++;
+            }
+        }
+    }
+
+    // Enters the frame for the smaller tower, or stays when there is none
+    private static int call(byte[] kind, byte[] from, byte[] phase, int n, byte steps, int peg, int caller) {
+        if (n == 0) {
+            return caller;
+        }
+        kind[n] = steps;
+        from[n] = (byte) peg;
+        phase[n] = 0;
+        return n;
+    }
+
+    private static int next(int peg) {
+        return peg == 2 ? 0 : peg + 1;
+    }
+
+    private static void checkDisks(int disks) {
+        if (disks < 0 || disks > MAX_DISKS) {
+            throw new IllegalArgumentException("Disk count must be between 0 and " + MAX_DISKS + ": " + disks);
+        }
+    }
+
+}
@@ -0,0 +1,46 @@
+package xyz.joseyamut.rules;
+
+import xyz.joseyamut.solver.MoveConsumer;
+import xyz.joseyamut.util.GameState;
+import xyz.joseyamut.validate.Violation;
+
+/**
+ * A set of rules for moving disks, on three pegs unless said otherwise. The
+ * tower always starts on X and has to be rebuilt on Z, and every variant
+ * keeps the classic rule that a disk never goes onto a smaller one.
+ */
+public interface RuleVariant {
+
+    /**
+     * Short name, as given on the command line.
+     */
+    String name();
+
+    String title();
+
+    /**
+     * Largest number of disks whose solution length still fits an unsigned
+     * long.
+     */
+    int maxDisks();
+
+    boolean supportsPegs(int pegs);
+
+    /**
+     * {@link Violation#NONE} when the top disk of {@code from} may go onto
+     * {@code to}.
+     */
+    Violation check(GameState state, int from, int to);
+
+    /**
+     * Length of the shortest solution, unsigned.
+     */
+    long moveCount(int disks);
+
+    /**
+     * Streams the shortest solution from X to Z, generated iteratively and
+     * without allocating per move.
+     */
+    void solve(int disks, MoveConsumer consumer);
+
+}
@@ -0,0 +1,33 @@
+package xyz.joseyamut.rules;
+
+import java.util.List;
+
+/**
+ * Every rule variant, looked up by name.
+ */
+public final class RuleVariants {
+
+    public static final RuleVariant CLASSIC = new ClassicRules();
+    public static final RuleVariant CYCLIC = new CyclicRules();
+    public static final RuleVariant ADJACENT = new AdjacentRules();
+    public static final RuleVariant BICOLOUR = new BicolourRules();
+
+    private static final List<RuleVariant> ALL = List.of(CLASSIC, CYCLIC, ADJACENT, BICOLOUR);
+
+    private RuleVariants() {
+    }
+
+    public static List<RuleVariant> all() {
+        return ALL;
+    }
+
+    public static RuleVariant byName(String name) {
+        for (RuleVariant variant : ALL) {
+            if (variant.name().equals(name)) {
+                return variant;
+            }
+        }
+        throw new IllegalArgumentException("Unknown rules: " + name);
+    }
+
+}
@@ -0,0 +1,193 @@
+package xyz.joseyamut.server;
+
+import lombok.extern.slf4j.Slf4j;
+import xyz.joseyamut.util.VirtualThreads;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serves games of a {@link SessionTable} over TCP, one thread per connection
+ * (a virtual thread where the runtime has them). The protocol is one line per
+ * request and one per reply:
+ * <pre>
+ * NEW &lt;disks&gt; [pegs]   OK &lt;session&gt;           start a game owned by this connection
+ * JOIN &lt;session&gt;        OK &lt;disks&gt; &lt;pegs&gt;      play on someone else's game
+ * MOVE &lt;from&gt; &lt;to&gt;     OK &lt;disk&gt; &lt;moves&gt; [SOLVED]
+ * STATE                 OK &lt;moves&gt; &lt;pegs...&gt;
+ * RESET                 OK
+ * QUIT                  BYE
+ * </pre>
+ * Pegs are numbered from 0. Anything refused gets {@code ERR <message>}. A
+ * game ends with the connection that started it, and connections that joined
+ * it are refused from then on.
+ */
+@Slf4j
+public class GameServer implements Closeable {
+
+    private static final int BACKLOG = 4096;
+
+    private final SessionTable sessions;
+    private final ServerSocket serverSocket;
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+
+    public GameServer(InetSocketAddress address, int capacity) throws IOException {
+        sessions = new SessionTable(capacity);
+        serverSocket = new ServerSocket();
+        serverSocket.bind(address, BACKLOG);
+    }
+
+    public SessionTable sessions() {
+        return sessions;
+    }
+
+    public InetSocketAddress address() {
+        return (InetSocketAddress) serverSocket.getLocalSocketAddress();
+    }
+
+    public int connectionCount() {
+        return connections.size();
+    }
+
+    /**
+     * Accepts connections on a background thread.
+     */
+    public void start() {
+        VirtualThreads.start("toh-server", this::serve);
+    }
+
+    /**
+     * Accepts connections until the server is closed.
+     */
+    public void serve() {
+        log.info("Serving games on {}", address());
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                connections.add(socket);
+                VirtualThreads.start("toh-session", () -> converse(socket));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    log.warn("Accept failed: {}", e.toString());
+                }
+            }
+        }
+    }
+
+    private void converse(Socket socket) {
+        Connection connection = new Connection();
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String reply = connection.handle(line.trim());
+                out.write(reply);
+                out.write('\n');
+                out.flush();
+                if (reply.equals("BYE")) {
+                    break;
+                }
+            }
+        } catch (SocketException e) {
+            // Reset by the client or closed with the server
+        } catch (IOException e) {
+            log.warn("Connection failed: {}", e.toString());
+        } finally {
+            connections.remove(socket);
+            connection.release();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Socket socket : connections) {
+            socket.close();
+        }
+    }
+
+    private class Connection {
+
+        private long session = -1;
+        private boolean owner;
+
+        String handle(String line) {
+            String[] words = line.split(" +");
+            try {
+                switch (words[0]) {
+                    case "NEW":
+                        release();
+                        session = sessions.open(number(words, 1), words.length > 2 ? number(words, 2) : 3);
+                        owner = true;
+                        return "OK " + SessionTable.id(session);
+                    case "JOIN":
+                        release();
+                        long joined = sessions.join(number(words, 1));
+                        String shape = sessions.disks(joined) + " " + sessions.pegs(joined);
+                        session = joined;
+                        return "OK " + shape;
+                    case "MOVE":
+                        int result = sessions.move(session(), number(words, 1), number(words, 2));
+                        if (result < 0) {
+                            return "ERR " + SessionTable.violation(result).message();
+                        }
+                        return "OK " + result + " " + sessions.moves(session)
+                                + (sessions.isSolved(session) ? " SOLVED" : "");
+                    case "STATE":
+                        return "OK " + sessions.moves(session()) + " " + sessions.state(session);
+                    case "RESET":
+                        sessions.reset(session());
+                        return "OK";
+                    case "QUIT":
+                        return "BYE";
+                    default:
+                        return "ERR Unknown request: " + words[0];
+                }
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                return "ERR " + e.getMessage();
+            }
+        }
+
+        private long session() {
+            if (session < 0) {
+                throw new IllegalStateException("No game, send NEW or JOIN first");
+            }
+            return session;
+        }
+
+        private int number(String[] words, int index) {
+            if (index >= words.length) {
+                throw new IllegalArgumentException("Missing argument to " + words[0]);
+            }
+            try {
+                return Integer.parseInt(words[index]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Not a number: " + words[index]);
+            }
+        }
+
+        void release() {
+            if (owner) {
+                sessions.close(session);
+            }
+            session = -1;
+            owner = false;
+        }
+
+    }
+
+}
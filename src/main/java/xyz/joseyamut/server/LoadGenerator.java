@@ -0,0 +1,127 @@
+package xyz.joseyamut.server;
+
+import xyz.joseyamut.metrics.LatencyHistogram;
+import xyz.joseyamut.solver.FrameStewart;
+import xyz.joseyamut.solver.FrameStewartSolver;
+import xyz.joseyamut.solver.Move;
+import xyz.joseyamut.util.VirtualThreads;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Plays many games against a {@link GameServer} at once: every client opens
+ * its own connection and session and plays the optimal solution, one request
+ * per move, timing each round trip.
+ */
+public class LoadGenerator {
+
+    private final InetSocketAddress address;
+    private final int disks;
+    private final int pegs;
+    private final String[] requests;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final AtomicLong moves = new AtomicLong();
+    private final AtomicInteger solved = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicReference<String> firstFailure = new AtomicReference<>();
+
+    public LoadGenerator(InetSocketAddress address, int disks, int pegs) {
+        this.address = address;
+        this.disks = disks;
+        this.pegs = pegs;
+        // Every client plays the same moves, so the lines are built once
+        int[] solution = new int[Math.toIntExact(FrameStewart.moveCount(disks, pegs))];
+        int[] count = new int[1];
+        FrameStewartSolver.solve(disks, pegs, (disk, from, to) -> solution[count[0]++] = Move.pack(disk, from, to));
+        requests = new String[solution.length];
+        for (int i = 0; i < solution.length; i++) {
+            requests[i] = "MOVE " + Move.from(solution[i]) + " " + Move.to(solution[i]) + "\n";
+        }
+    }
+
+    public Report run(int clients) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(clients);
+        long start = System.nanoTime();
+        for (int i = 0; i < clients; i++) {
+            VirtualThreads.start("toh-load", () -> {
+                try {
+                    play();
+                } catch (IOException | RuntimeException e) {
+                    failed.incrementAndGet();
+                    firstFailure.compareAndSet(null, e.toString());
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        return new Report(clients, solved.get(), failed.get(), moves.get(), System.nanoTime() - start, latency,
+                firstFailure.get());
+    }
+
+    private void play() throws IOException {
+        try (Socket socket = new Socket()) {
+            socket.setTcpNoDelay(true);
+            socket.connect(address);
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII));
+            expectOk(request(in, out, "NEW " + disks + " " + pegs + "\n"));
+            String reply = null;
+            for (String request : requests) {
+                long sent = System.nanoTime();
+                reply = request(in, out, request);
+                latency.record(System.nanoTime() - sent);
+                expectOk(reply);
+                moves.incrementAndGet();
+            }
+            if (reply == null || !reply.endsWith(" SOLVED")) {
+                throw new IllegalStateException("Not solved after " + requests.length + " moves: " + reply);
+            }
+            request(in, out, "QUIT\n");
+            solved.incrementAndGet();
+        }
+    }
+
+    private static String request(BufferedReader in, Writer out, String line) throws IOException {
+        out.write(line);
+        out.flush();
+        String reply = in.readLine();
+        if (reply == null) {
+            throw new IOException("Connection closed by the server");
+        }
+        return reply;
+    }
+
+    private static void expectOk(String reply) {
+        if (!reply.startsWith("OK")) {
+            throw new IllegalStateException(reply);
+        }
+    }
+
+    public record Report(int clients, int solved, int failed, long moves, long elapsedNanos,
+                         LatencyHistogram latency, String firstFailure) {
+
+        @Override
+        public String toString() {
+            return String.format("%d clients, %d solved, %d failed, %d moves in %.1f ms, %.0f moves/s%n"
+                            + "round trip p50 %.1f us, p99 %.1f us, max %.1f us",
+                    clients, solved, failed, moves, elapsedNanos / 1e6, moves * 1e9 / elapsedNanos,
+                    latency.percentile(50) / 1e3, latency.percentile(99) / 1e3, latency.max() / 1e3)
+                    + (firstFailure == null ? "" : "\nfirst failure: " + firstFailure);
+        }
+
+    }
+
+}
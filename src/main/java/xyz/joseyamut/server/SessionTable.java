@@ -0,0 +1,246 @@
+package xyz.joseyamut.server;
+
+import xyz.joseyamut.util.GameState;
+import xyz.joseyamut.validate.MoveValidator;
+import xyz.joseyamut.validate.Violation;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * State of many games in two longs each: the peg of every disk, packed like
+ * {@link GameState#lo()} with the slot's life in the top byte, and a word
+ * holding the shape, a generation, the life again and the move count. Moves
+ * are checked by {@link MoveValidator} and applied with a compare-and-set on
+ * the first word, so any number of threads can play on the table, and on the
+ * same game, without locks. The move count is bumped right after, and only
+ * while the life the move was made in lasts.
+ * <p>
+ * Games are addressed by a session handle: the slot id in the low 32 bits and
+ * the slot's generation above. A slot's generation changes every time it is
+ * opened, so a player who joined a game that has since been closed is
+ * refused instead of playing on the next game given that slot.
+ * <p>
+ * The life changes on every open and reset. Both words are written one after
+ * the other, and a move finding different lives in them waits for the other
+ * write, so a move racing a reset or a reopen is either wiped and not counted,
+ * or made and counted in the new life.
+ */
+public class SessionTable {
+
+    // Leaves the top byte of the position for the life
+    public static final int MAX_DISKS = 28;
+
+    private static final int LIFE_SHIFT = 56;
+    private static final long POSITION_MASK = (1L << LIFE_SHIFT) - 1;
+    private static final long LIFE_MASK = 0xFF;
+    private static final int META_LIFE_SHIFT = 8;
+    private static final int GENERATION_SHIFT = 16;
+    private static final long GENERATION_MASK = 0xFFFF;
+    private static final int MOVES_SHIFT = 32;
+    private static final long ONE_MOVE = 1L << MOVES_SHIFT;
+
+    private final int capacity;
+    // Slot i owns words 2i (life, pegs of the disks) and 2i + 1 (moves,
+    // generation, life, pegs, disks); a closed slot has no disks
+    private final AtomicLongArray words;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Queue<Integer> released = new ConcurrentLinkedQueue<>();
+
+    public SessionTable(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        words = new AtomicLongArray(capacity * 2);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Starts a game with every disk on the first peg and returns its handle.
+     */
+    public long open(int disks, int pegs) {
+        if (disks < 1 || disks > MAX_DISKS) {
+            throw new IllegalArgumentException("Disk count must be between 1 and " + MAX_DISKS + ": " + disks);
+        }
+        if (pegs < GameState.PEGS || pegs > GameState.MAX_PEGS) {
+            throw new IllegalArgumentException("Peg count must be between " + GameState.PEGS + " and "
+                    + GameState.MAX_PEGS + ": " + pegs);
+        }
+        Integer reused = released.poll();
+        int id = reused != null ? reused : next.getAndIncrement();
+        if (id >= capacity) {
+            next.decrementAndGet();
+            throw new IllegalStateException("All " + capacity + " sessions are in use");
+        }
+        long closed = words.get(2 * id + 1);
+        long generation = (generation(closed) + 1) & GENERATION_MASK;
+        long life = nextLife(life(closed));
+        // Generation first: a player of the last game is refused from here on,
+        // and one already past the check moves in a life that is over
+        words.set(2 * id + 1, generation << GENERATION_SHIFT | life << META_LIFE_SHIFT | (long) pegs << 5 | disks);
+        words.set(2 * id, life << LIFE_SHIFT);
+        return generation << 32 | id;
+    }
+
+    /**
+     * Handle of the game now open in slot {@code id}.
+     */
+    public long join(int id) {
+        if (id < 0 || id >= capacity || diskCount(words.get(2 * id + 1)) == 0) {
+            throw new IllegalArgumentException("No such session: " + id);
+        }
+        return generation(words.get(2 * id + 1)) << 32 | id;
+    }
+
+    public static int id(long session) {
+        return (int) session;
+    }
+
+    public void close(long session) {
+        int id = id(session);
+        long meta;
+        do {
+            meta = meta(session);
+        } while (!words.compareAndSet(2 * id + 1, meta,
+                meta & (GENERATION_MASK << GENERATION_SHIFT | LIFE_MASK << META_LIFE_SHIFT)));
+        released.offer(id);
+    }
+
+    /**
+     * Puts every disk back on the first peg.
+     */
+    public void reset(long session) {
+        int id = id(session);
+        long word;
+        while (true) {
+            long meta = meta(session);
+            word = words.get(2 * id);
+            // Waits out another reset halfway through
+            if (life(meta) == positionLife(word)
+                    && words.compareAndSet(2 * id, word, nextLife(positionLife(word)) << LIFE_SHIFT)) {
+                break;
+            }
+            Thread.onSpinWait();
+        }
+        long life = nextLife(positionLife(word));
+        long meta;
+        do {
+            meta = meta(session);
+        } while (!words.compareAndSet(2 * id + 1, meta,
+                meta & (ONE_MOVE - 1) & ~(LIFE_MASK << META_LIFE_SHIFT) | life << META_LIFE_SHIFT));
+    }
+
+    /**
+     * Moves the top disk of {@code from} onto {@code to} if the rules allow
+     * it. Returns the disk moved, or minus the ordinal of the
+     * {@link Violation} that refused it; see {@link #violation(int)}.
+     */
+    public int move(long session, int from, int to) {
+        int id = id(session);
+        long meta;
+        long word;
+        int disk;
+        do {
+            // Meta before the position, so a reset or reopen since shows as a life apart
+            meta = meta(session);
+            word = words.get(2 * id);
+            if (life(meta) != positionLife(word)) {
+                Thread.onSpinWait();
+                disk = 0;
+                continue;
+            }
+            int disks = diskCount(meta);
+            Violation violation = MoveValidator.check(word, disks, pegCount(meta), from, to);
+            if (violation != Violation.NONE) {
+                return -violation.ordinal();
+            }
+            disk = GameState.topDisk(word, disks, from);
+        } while (disk == 0 || !words.compareAndSet(2 * id, word, word ^ (long) (from ^ to) << ((disk - 1) << 1)));
+
+        // A reset or reopen since has wiped the move, so it is not counted
+        do {
+            meta = words.get(2 * id + 1);
+            if (generation(meta) != session >>> 32 || life(meta) != positionLife(word)) {
+                break;
+            }
+        } while (!words.compareAndSet(2 * id + 1, meta, meta + ONE_MOVE));
+        return disk;
+    }
+
+    public static Violation violation(int result) {
+        return result > 0 ? Violation.NONE : Violation.values()[-result];
+    }
+
+    public boolean isSolved(long session) {
+        long meta = meta(session);
+        return (words.get(2 * id(session)) & POSITION_MASK) == GameState.tower(diskCount(meta), pegCount(meta) - 1);
+    }
+
+    public long moves(long session) {
+        return meta(session) >>> MOVES_SHIFT;
+    }
+
+    public int disks(long session) {
+        return diskCount(meta(session));
+    }
+
+    public int pegs(long session) {
+        return pegCount(meta(session));
+    }
+
+    /**
+     * Copy of the position, for display.
+     */
+    public GameState state(long session) {
+        long meta = meta(session);
+        GameState state = new GameState(diskCount(meta), pegCount(meta));
+        long word = words.get(2 * id(session));
+        for (int disk = 1; disk <= state.disks(); disk++) {
+            state.place(disk, (int) (word >>> ((disk - 1) << 1)) & 3);
+        }
+        return state;
+    }
+
+    private long meta(long session) {
+        int id = id(session);
+        if (id < 0 || id >= capacity) {
+            throw new IllegalArgumentException("No such session: " + id);
+        }
+        long meta = words.get(2 * id + 1);
+        if (diskCount(meta) == 0 || generation(meta) != session >>> 32) {
+            throw new IllegalStateException("Session " + id + " has ended");
+        }
+        return meta;
+    }
+
+    private static int diskCount(long meta) {
+        return (int) meta & 0x1F;
+    }
+
+    private static int pegCount(long meta) {
+        return (int) (meta >>> 5) & 0x7;
+    }
+
+    private static long life(long meta) {
+        return (meta >>> META_LIFE_SHIFT) & LIFE_MASK;
+    }
+
+    private static long positionLife(long word) {
+        return word >>> LIFE_SHIFT;
+    }
+
+    private static long nextLife(long life) {
+        return (life + 1) & LIFE_MASK;
+    }
+
+    private static long generation(long meta) {
+        return (meta >>> GENERATION_SHIFT) & GENERATION_MASK;
+    }
+
+}
@@ -0,0 +1,52 @@
+package xyz.joseyamut.solver;
+
+import xyz.joseyamut.util.GameState;
+
+/**
+ * Shortest distance from any legal configuration to the full tower on Z. Going
+ * from the largest disk down, a disk that is not on its target has to make
+ * exactly one move there, which costs 2^(disk - 1) moves including moving
+ * every smaller disk out of the way onto the remaining peg, and that peg
+ * becomes the target for the smaller disks. Both queries are O(n), with no
+ * search.
+ */
+public class DistanceOracle {
+
+    public static final int NO_MOVE = -1;
+
+    /**
+     * Minimum number of moves left, unsigned when it exceeds 2^63 - 1.
+     */
+    public static long distance(GameState state) {
+        int target = Move.PEG_Z;
+        long distance = 0;
+        for (int disk = state.disks(); disk >= 1; disk--) {
+            int peg = state.peg(disk);
+            if (peg != target) {
+                distance += 1L << (disk - 1);
+                target = 3 - peg - target;
+            }
+        }
+        return distance;
+    }
+
+    /**
+     * First move of an optimal continuation, packed with {@link Move#pack},
+     * or {@link #NO_MOVE} when the tower is already complete. It is the move
+     * of the smallest disk not on its target: every smaller disk already sits
+     * on the third peg, so that disk is free to move.
+     */
+    public static int nextMove(GameState state) {
+        int target = Move.PEG_Z;
+        int next = NO_MOVE;
+        for (int disk = state.disks(); disk >= 1; disk--) {
+            int peg = state.peg(disk);
+            if (peg != target) {
+                next = Move.pack(disk, peg, target);
+                target = 3 - peg - target;
+            }
+        }
+        return next;
+    }
+
+}
@@ -0,0 +1,114 @@
+package xyz.joseyamut.solver;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Frame-Stewart move counts and partition choices for k pegs. To move n disks
+ * with p pegs, the top i disks are parked on a spare peg using all p pegs, the
+ * remaining n - i disks move with the other p - 1, and the i disks follow:
+ * T(n, p) = min over i of 2 T(i, p) + T(n - i, p - 1). The table is filled
+ * once per peg count, grown when a larger disk count is asked for, and shared
+ * by every caller. Counts saturate at {@link Long#MAX_VALUE}.
+ */
+public class FrameStewart {
+
+    public static final int MIN_PEGS = 3;
+
+    private static final Map<Integer, FrameStewart> tables = new ConcurrentHashMap<>();
+
+    private final int disks;
+    private final int pegs;
+    // Indexed [pegs][disks]
+    private final long[][] cost;
+    private final int[][] split;
+
+    private FrameStewart(int disks, int pegs) {
+        this.disks = disks;
+        this.pegs = pegs;
+        cost = new long[pegs + 1][disks + 1];
+        split = new int[pegs + 1][disks + 1];
+        fill();
+    }
+
+    /**
+     * Shared table covering at least {@code disks} disks and exactly
+     * {@code pegs} pegs (and every smaller peg count).
+     */
+    public static FrameStewart table(int disks, int pegs) {
+        if (pegs < MIN_PEGS) {
+            throw new IllegalArgumentException("At least " + MIN_PEGS + " pegs are needed: " + pegs);
+        }
+        if (disks < 0) {
+            throw new IllegalArgumentException("Disk count must not be negative: " + disks);
+        }
+        FrameStewart table = tables.get(pegs);
+        if (table != null && table.disks >= disks) {
+            return table;
+        }
+        return tables.compute(pegs, (key, existing) ->
+                existing != null && existing.disks >= disks ? existing : new FrameStewart(disks, pegs));
+    }
+
+    public static long moveCount(int disks, int pegs) {
+        return table(disks, pegs).moves(disks, pegs);
+    }
+
+    public long moves(int disks, int pegs) {
+        return cost[pegs][disks];
+    }
+
+    /**
+     * Number of top disks parked on a spare peg when moving {@code disks}
+     * disks with {@code pegs} pegs.
+     */
+    public int split(int disks, int pegs) {
+        return split[pegs][disks];
+    }
+
+    public int disks() {
+        return disks;
+    }
+
+    public int pegs() {
+        return pegs;
+    }
+
+    private void fill() {
+        for (int n = 0; n <= disks; n++) {
+            cost[MIN_PEGS][n] = n >= 63 ? Long.MAX_VALUE : (1L << n) - 1;
+            split[MIN_PEGS][n] = Math.max(n - 1, 0);
+        }
+        // Row n only needs rows below it, for every peg count
+        for (int n = 0; n <= disks; n++) {
+            for (int p = MIN_PEGS + 1; p <= pegs; p++) {
+                fillCell(n, p);
+            }
+        }
+    }
+
+    private void fillCell(int n, int p) {
+        if (n <= 1) {
+            cost[p][n] = n;
+            split[p][n] = 0;
+            return;
+        }
+        long best = Long.MAX_VALUE;
+        int bestSplit = n - 1;
+        for (int i = 1; i < n; i++) {
+            long moves = saturatingAdd(saturatingAdd(cost[p][i], cost[p][i]), cost[p - 1][n - i]);
+            if (moves < best) {
+                best = moves;
+                bestSplit = i;
+            }
+        }
+        cost[p][n] = best;
+        split[p][n] = bestSplit;
+    }
+
+    private static long saturatingAdd(long a, long b) {
+        long sum = a + b;
+        return sum < 0 ? Long.MAX_VALUE : sum;
+    }
+
+}
@@ -0,0 +1,80 @@
+package xyz.joseyamut.solver;
+
+/**
+ * Streams the Frame-Stewart solution for any number of pegs. The recursion
+ * runs on an explicit stack of sub-tower tasks sized up front, so no objects
+ * are created per move.
+ */
+public class FrameStewartSolver {
+
+    public static void solve(int disks, int pegs, MoveConsumer consumer) {
+        solve(disks, pegs, 0, pegs - 1, consumer);
+    }
+
+    public static void solve(int disks, int pegs, int from, int to, MoveConsumer consumer) {
+        if (pegs > 31) {
+            throw new IllegalArgumentException("At most 31 pegs are supported: " + pegs);
+        }
+        FrameStewart table = FrameStewart.table(disks, pegs);
+        if (disks == 0) {
+            return;
+        }
+
+        // Each task moves disks base + 1 .. base + count from src to dst
+        // using only the pegs in its mask
+        int capacity = 2 * disks + 1;
+        int[] base = new int[capacity];
+        int[] count = new int[capacity];
+        int[] src = new int[capacity];
+        int[] dst = new int[capacity];
+        int[] mask = new int[capacity];
+
+        int top = 0;
+        base[0] = 0;
+        count[0] = disks;
+        src[0] = from;
+        dst[0] = to;
+        mask[0] = (1 << pegs) - 1;
+
+        while (top >= 0) {
+            int b = base[top];
+            int n = count[top];
+            int s = src[top];
+            int d = dst[top];
+            int m = mask[top];
+            top--;
+
+            if (n == 1) {
+                consumer.accept(b + 1, s, d);
+                continue;
+            }
+
+            int available = Integer.bitCount(m);
+            int parked = table.split(n, available);
+            int spare = Integer.numberOfTrailingZeros(m & ~(1 << s) & ~(1 << d));
+
+            // Pushed in reverse: park, move the rest without the spare, unpark
+            top++;
+            base[top] = b;
+            count[top] = parked;
+            src[top] = spare;
+            dst[top] = d;
+            mask[top] = m;
+
+            top++;
+            base[top] = b + parked;
+            count[top] = n - parked;
+            src[top] = s;
+            dst[top] = d;
+            mask[top] = m & ~(1 << spare);
+
+            top++;
+            base[top] = b;
+            count[top] = parked;
+            src[top] = s;
+            dst[top] = spare;
+            mask[top] = m;
+        }
+    }
+
+}
@@ -0,0 +1,85 @@
+package xyz.joseyamut.solver;
+
+import xyz.joseyamut.util.FixedStack;
+
+/**
+ * Non-recursive solver for the three peg puzzle. Move k (1-based) always moves
+ * disk {@code numberOfTrailingZeros(k) + 1}; the smallest disk cycles through
+ * the pegs in one direction and every other disk alternates with it, so the
+ * whole solution is produced from a counter and two small lookup arrays.
+ */
+public class IterativeSolver {
+
+    public static final int MAX_DISKS = 64;
+
+    /**
+     * Number of moves in the optimal solution, 2^n - 1. For 64 disks the value
+     * does not fit a signed long and has to be read as unsigned.
+     */
+    public static long moveCount(int disks) {
+        checkDisks(disks);
+        return disks == MAX_DISKS ? -1L : (1L << disks) - 1;
+    }
+
+    public static void solve(int disks, MoveConsumer consumer) {
+        solve(disks, Move.PEG_X, Move.PEG_Y, Move.PEG_Z, consumer);
+    }
+
+    public static void solve(int disks, int from, int via, int to, MoveConsumer consumer) {
+        long last = moveCount(disks);
+        if (disks == 0) {
+            return;
+        }
+
+        int[] pegs = {from, via, to};
+        int[] position = new int[disks + 1];
+        int[] step = steps(disks);
+
+        long k = 0;
+        do {
+            k++;
+            int disk = Long.numberOfTrailingZeros(k) + 1;
+            int src = position[disk];
+            int dst = src + step[disk];
+            if (dst >= 3) {
+                dst -= 3;
+            }
+            position[disk] = dst;
+            consumer.accept(disk, pegs[src], pegs[dst]);
+        } while (k != last);
+    }
+
+    /**
+     * Plays the full solution on the given stacks, moving every disk of
+     * {@code source} onto {@code target}.
+     */
+    public static void solve(FixedStack source, FixedStack via, FixedStack target) {
+        FixedStack[] stacks = {source, via, target};
+        solve(source.size(), Move.PEG_X, Move.PEG_Y, Move.PEG_Z,
+                (disk, from, to) -> stacks[to].push(stacks[from].pop()));
+    }
+
+    public static MoveIterator iterator(int disks) {
+        return new MoveIterator(disks);
+    }
+
+    // Peg offset (1 or 2, mod 3) each disk advances per move, indexed by disk
+    static int[] steps(int disks) {
+        int[] step = new int[disks + 1];
+        for (int disk = 1; disk <= disks; disk++) {
+            step[disk] = step(disks, disk);
+        }
+        return step;
+    }
+
+    static int step(int disks, int disk) {
+        return ((disks - disk) & 1) == 0 ? 2 : 1;
+    }
+
+    static void checkDisks(int disks) {
+        if (disks < 0 || disks > MAX_DISKS) {
+            throw new IllegalArgumentException("Disk count must be between 0 and " + MAX_DISKS + ": " + disks);
+        }
+    }
+
+}
@@ -0,0 +1,36 @@
+package xyz.joseyamut.solver;
+
+/**
+ * Packs a single move into an int: disk in the upper half, source and
+ * destination peg in the two low bytes.
+ */
+public final class Move {
+
+    public static final int PEG_X = 0;
+    public static final int PEG_Y = 1;
+    public static final int PEG_Z = 2;
+
+    private Move() {
+    }
+
+    public static int pack(int disk, int from, int to) {
+        return (disk << 16) | (from << 8) | to;
+    }
+
+    public static int disk(int move) {
+        return move >>> 16;
+    }
+
+    public static int from(int move) {
+        return (move >>> 8) & 0xFF;
+    }
+
+    public static int to(int move) {
+        return move & 0xFF;
+    }
+
+    public static String toString(int move) {
+        return "disk " + disk(move) + ": " + from(move) + " -> " + to(move);
+    }
+
+}
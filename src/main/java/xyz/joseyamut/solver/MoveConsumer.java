@@ -0,0 +1,8 @@
+package xyz.joseyamut.solver;
+
+@FunctionalInterface
+public interface MoveConsumer {
+
+    void accept(int disk, int from, int to);
+
+}
@@ -0,0 +1,53 @@
+package xyz.joseyamut.solver;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Pull-style counterpart of {@link IterativeSolver#solve(int, MoveConsumer)};
+ * each {@link #nextInt()} returns a move packed with {@link Move#pack}.
+ */
+public class MoveIterator implements PrimitiveIterator.OfInt {
+
+    private final long last;
+    private final int[] position;
+    private final int[] step;
+    private long k;
+
+    MoveIterator(int disks) {
+        last = IterativeSolver.moveCount(disks);
+        position = new int[disks + 1];
+        step = IterativeSolver.steps(disks);
+        k = 0;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return k != last;
+    }
+
+    @Override
+    public int nextInt() {
+        if (k == last) {
+            throw new NoSuchElementException();
+        }
+
+        k++;
+        int disk = Long.numberOfTrailingZeros(k) + 1;
+        int src = position[disk];
+        int dst = src + step[disk];
+        if (dst >= 3) {
+            dst -= 3;
+        }
+        position[disk] = dst;
+        return Move.pack(disk, src, dst);
+    }
+
+    /**
+     * Moves emitted so far; unsigned once past 2^63.
+     */
+    public long position() {
+        return k;
+    }
+
+}
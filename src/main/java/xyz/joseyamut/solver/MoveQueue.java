@@ -0,0 +1,115 @@
+package xyz.joseyamut.solver;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded ring of packed moves between exactly one producer and one consumer.
+ * The producer blocks while the ring is full and writes in batches; the
+ * consumer never blocks, it drains whatever is there. Nothing is allocated
+ * per move.
+ */
+public class MoveQueue {
+
+    public static final int CLOSED = -1;
+
+    // How long a producer waits for room before looking again
+    private static final long PARK_NANOS = 50_000;
+
+    private final int[] ring;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private volatile boolean closed;
+    private volatile boolean cancelled;
+
+    /**
+     * @param capacity rounded up to a power of two
+     */
+    public MoveQueue(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        ring = new int[size];
+        mask = size - 1;
+    }
+
+    /**
+     * Producer side: adds {@code count} moves from {@code moves}, waiting for
+     * room as needed. Returns false, with only part of the batch queued, once
+     * the consumer has cancelled.
+     */
+    public boolean putAll(int[] moves, int count) {
+        long t = tail.get();
+        int offset = 0;
+        while (offset < count) {
+            long room = ring.length - (t - head.get());
+            if (room == 0) {
+                if (cancelled) {
+                    return false;
+                }
+                LockSupport.parkNanos(PARK_NANOS);
+                continue;
+            }
+            int n = (int) Math.min(room, count - offset);
+            for (int i = 0; i < n; i++) {
+                ring[(int) (t + i) & mask] = moves[offset + i];
+            }
+            t += n;
+            offset += n;
+            tail.lazySet(t);
+        }
+        return !cancelled;
+    }
+
+    /**
+     * Producer side: no more moves will be put.
+     */
+    public void close() {
+        closed = true;
+    }
+
+    /**
+     * Consumer side: moves up to {@code into.length} queued moves into the
+     * array and returns how many, 0 when none are ready yet, or
+     * {@link #CLOSED} once the producer has closed and everything was drained.
+     */
+    public int drain(int[] into) {
+        return drain(into, into.length);
+    }
+
+    public int drain(int[] into, int max) {
+        // Read closed before the tail, so nothing put before close() is missed
+        boolean wasClosed = closed;
+        long h = head.get();
+        int n = (int) Math.min(tail.get() - h, max);
+        if (n == 0) {
+            return wasClosed ? CLOSED : 0;
+        }
+        for (int i = 0; i < n; i++) {
+            into[i] = ring[(int) (h + i) & mask];
+        }
+        head.lazySet(h + n);
+        return n;
+    }
+
+    /**
+     * Consumer side: tells the producer to stop.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public int capacity() {
+        return ring.length;
+    }
+
+}
@@ -0,0 +1,69 @@
+package xyz.joseyamut.solver;
+
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+
+/**
+ * Spliterator over a range of optimal solution move indexes. Splitting halves
+ * the range, and each half seeds itself in O(n) through
+ * {@link OptimalSolution#solve(int, long, long, MoveConsumer)}, so parallel
+ * streams scale with the number of cores rather than the length of the
+ * solution.
+ */
+public class MoveSpliterator implements Spliterator.OfInt {
+
+    private final int disks;
+    private long origin;
+    private final long fence;
+
+    MoveSpliterator(int disks, long origin, long fence) {
+        this.disks = disks;
+        this.origin = origin;
+        this.fence = fence;
+    }
+
+    @Override
+    public OfInt trySplit() {
+        long size = fence - origin;
+        if (Long.compareUnsigned(size, 2) < 0) {
+            return null;
+        }
+        long mid = origin + (size >>> 1);
+        MoveSpliterator prefix = new MoveSpliterator(disks, origin, mid);
+        origin = mid;
+        return prefix;
+    }
+
+    @Override
+    public boolean tryAdvance(IntConsumer action) {
+        if (origin == fence) {
+            return false;
+        }
+        action.accept(OptimalSolution.moveAt(disks, origin));
+        origin++;
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(IntConsumer action) {
+        if (origin == fence) {
+            return;
+        }
+        OptimalSolution.solve(disks, origin, fence,
+                (disk, from, to) -> action.accept(Move.pack(disk, from, to)));
+        origin = fence;
+    }
+
+    @Override
+    public long estimateSize() {
+        long size = fence - origin;
+        return size < 0 ? Long.MAX_VALUE : size;
+    }
+
+    @Override
+    public int characteristics() {
+        int characteristics = ORDERED | IMMUTABLE | NONNULL;
+        return fence - origin < 0 ? characteristics : characteristics | SIZED | SUBSIZED;
+    }
+
+}
@@ -0,0 +1,53 @@
+package xyz.joseyamut.solver;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Fixed size bit set in a direct buffer, outside the Java heap. Bits are set
+ * with an atomic or on the containing word, so any number of threads can set
+ * bits concurrently.
+ */
+class OffHeapBitSet {
+
+    private static final VarHandle WORDS =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final long bits;
+    private final int words;
+    private final ByteBuffer buffer;
+
+    OffHeapBitSet(long bits) {
+        long words = (bits + 63) >>> 6;
+        if (words > Integer.MAX_VALUE / Long.BYTES) {
+            throw new IllegalArgumentException("Too many bits for one buffer: " + bits);
+        }
+        this.bits = bits;
+        this.words = (int) words;
+        buffer = ByteBuffer.allocateDirect(this.words * Long.BYTES).order(ByteOrder.nativeOrder());
+    }
+
+    long bits() {
+        return bits;
+    }
+
+    long word(int index) {
+        return (long) WORDS.get(buffer, index * Long.BYTES);
+    }
+
+    boolean get(long bit) {
+        return (word((int) (bit >>> 6)) & (1L << bit)) != 0;
+    }
+
+    /**
+     * Sets the bit and tells whether this call was the one that set it.
+     */
+    boolean set(long bit) {
+        long mask = 1L << bit;
+        long previous = (long) WORDS.getAndBitwiseOr(buffer, (int) (bit >>> 6) * Long.BYTES, mask);
+        return (previous & mask) == 0;
+    }
+
+}
@@ -0,0 +1,117 @@
+package xyz.joseyamut.solver;
+
+import xyz.joseyamut.util.GameState;
+
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Random access into the optimal three peg solution. Move indexes are 0-based
+ * and, like {@link IterativeSolver#moveCount(int)}, unsigned: with 64 disks
+ * the last index is 2^64 - 2.
+ */
+public class OptimalSolution {
+
+    /**
+     * The move at {@code index}, packed with {@link Move#pack}, in O(1) and
+     * without allocating.
+     */
+    public static int moveAt(int disks, long index) {
+        checkIndex(disks, index);
+        long k = index + 1;
+        int disk = Long.numberOfTrailingZeros(k) + 1;
+        // Earlier moves of the same disk, each one advancing it by its step
+        long moved = disk == 64 ? 0 : k >>> disk;
+        int step = IterativeSolver.step(disks, disk);
+        int from = (int) (Long.remainderUnsigned(moved, 3) * step % 3);
+        int to = (from + step) % 3;
+        return Move.pack(disk, from, to);
+    }
+
+    public static GameState stateAfter(int disks, long moves) {
+        GameState state = new GameState(disks);
+        stateAfter(moves, state);
+        return state;
+    }
+
+    /**
+     * Overwrites {@code into} with the configuration reached after the first
+     * {@code moves} moves, in O(n).
+     */
+    public static void stateAfter(long moves, GameState into) {
+        int disks = into.disks();
+        if (Long.compareUnsigned(moves, IterativeSolver.moveCount(disks)) > 0) {
+            throw new IndexOutOfBoundsException("Move count out of range: " + Long.toUnsignedString(moves));
+        }
+        int[] step = IterativeSolver.steps(disks);
+        for (int disk = 1; disk <= disks; disk++) {
+            into.place(disk, pegAfter(disk, step[disk], moves));
+        }
+    }
+
+    /**
+     * Emits the moves with index {@code fromIndex} (inclusive) to
+     * {@code toIndex} (exclusive), seeding the per-disk positions in O(n) and
+     * then advancing with the same counter loop as {@link IterativeSolver}.
+     */
+    public static void solve(int disks, long fromIndex, long toIndex, MoveConsumer consumer) {
+        long count = IterativeSolver.moveCount(disks);
+        if (Long.compareUnsigned(fromIndex, toIndex) > 0 || Long.compareUnsigned(toIndex, count) > 0) {
+            throw new IndexOutOfBoundsException("Move range out of bounds: "
+                    + Long.toUnsignedString(fromIndex) + ".." + Long.toUnsignedString(toIndex));
+        }
+        if (fromIndex == toIndex) {
+            return;
+        }
+
+        int[] step = IterativeSolver.steps(disks);
+        int[] position = new int[disks + 1];
+        for (int disk = 1; disk <= disks; disk++) {
+            position[disk] = pegAfter(disk, step[disk], fromIndex);
+        }
+
+        long k = fromIndex;
+        do {
+            k++;
+            int disk = Long.numberOfTrailingZeros(k) + 1;
+            int src = position[disk];
+            int dst = src + step[disk];
+            if (dst >= 3) {
+                dst -= 3;
+            }
+            position[disk] = dst;
+            consumer.accept(disk, src, dst);
+        } while (k != toIndex);
+    }
+
+    public static MoveSpliterator spliterator(int disks) {
+        return new MoveSpliterator(disks, 0, IterativeSolver.moveCount(disks));
+    }
+
+    public static MoveSpliterator spliterator(int disks, long fromIndex, long toIndex) {
+        long count = IterativeSolver.moveCount(disks);
+        if (Long.compareUnsigned(fromIndex, toIndex) > 0 || Long.compareUnsigned(toIndex, count) > 0) {
+            throw new IndexOutOfBoundsException("Move range out of bounds: "
+                    + Long.toUnsignedString(fromIndex) + ".." + Long.toUnsignedString(toIndex));
+        }
+        return new MoveSpliterator(disks, fromIndex, toIndex);
+    }
+
+    public static IntStream stream(int disks, boolean parallel) {
+        return StreamSupport.intStream(spliterator(disks), parallel);
+    }
+
+    // Peg of a disk after the given number of moves: the disk has moved once
+    // for every k <= moves whose lowest set bit is bit (disk - 1)
+    static int pegAfter(int disk, int step, long moves) {
+        long moved = (disk == 64 ? 0 : moves >>> disk) + ((moves >>> (disk - 1)) & 1);
+        return (int) (Long.remainderUnsigned(moved, 3) * step % 3);
+    }
+
+    private static void checkIndex(int disks, long index) {
+        if (Long.compareUnsigned(index, IterativeSolver.moveCount(disks)) >= 0) {
+            throw new IndexOutOfBoundsException("Move index out of range: " + Long.toUnsignedString(index));
+        }
+    }
+
+}
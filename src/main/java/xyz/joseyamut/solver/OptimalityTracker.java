@@ -0,0 +1,119 @@
+package xyz.joseyamut.solver;
+
+import xyz.joseyamut.util.GameState;
+
+/**
+ * Distance to the goal and wasted moves of a three peg game, kept up to date
+ * move by move. As in {@link DistanceOracle}, every disk has a target peg set
+ * by the larger disks, and a disk off its target owes 2^(disk - 1) moves, so
+ * the distance is simply the mask of disks off target. A move of disk k can
+ * only change the targets of smaller disks, and the walk down stops at the
+ * first disk whose target stays the same: the cost of a move is bounded by
+ * the size of the disk moved, which averages out to a constant as the small
+ * disks move most often.
+ * <p>
+ * The shortest solution from the tower on X is unique, so a game is still on
+ * it exactly when no move has been wasted.
+ */
+public class OptimalityTracker {
+
+    private final GameState state;
+    private final long optimalMoves;
+    // target[d] is the peg disk d has to reach, target[0] is unused
+    private final byte[] target;
+    // Bit d - 1 set when disk d is off target, unsigned
+    private long distance;
+    private long moves;
+    private long firstWastedMove = -1;
+
+    public OptimalityTracker(int disks) {
+        state = new GameState(disks);
+        optimalMoves = IterativeSolver.moveCount(disks);
+        target = new byte[disks + 1];
+        reset(state, 0);
+    }
+
+    /**
+     * Applies a legal move; legality is not checked.
+     */
+    public void accept(int from, int to) {
+        int disk = state.move(from, to);
+        moves++;
+        for (int d = disk; d >= 1; d--) {
+            int peg = state.peg(d);
+            int below;
+            if (peg == target[d]) {
+                distance &= ~(1L << (d - 1));
+                below = target[d];
+            } else {
+                distance |= 1L << (d - 1);
+                below = 3 - peg - target[d];
+            }
+            if (d == 1 || target[d - 1] == below) {
+                break;
+            }
+            target[d - 1] = (byte) below;
+        }
+        if (firstWastedMove < 0 && distance != optimalMoves - moves) {
+            firstWastedMove = moves - 1;
+        }
+    }
+
+    /**
+     * Starts over from {@code position}, reached after {@code moves} moves,
+     * in O(n). Used after jumps through the move history.
+     */
+    public void reset(GameState position, long moves) {
+        if (position != state) {
+            state.copyFrom(position);
+        }
+        this.moves = moves;
+        int goal = Move.PEG_Z;
+        distance = 0;
+        for (int d = state.disks(); d >= 1; d--) {
+            target[d] = (byte) goal;
+            int peg = state.peg(d);
+            if (peg != goal) {
+                distance |= 1L << (d - 1);
+                goal = 3 - peg - goal;
+            }
+        }
+        firstWastedMove = wastedMoves() == 0 ? -1 : moves;
+    }
+
+    public long moves() {
+        return moves;
+    }
+
+    /**
+     * Minimum number of moves left, unsigned like {@link DistanceOracle#distance}.
+     */
+    public long distance() {
+        return distance;
+    }
+
+    /**
+     * Moves made beyond the shortest way to the current position's distance
+     * from the goal.
+     */
+    public long wastedMoves() {
+        return moves + distance - optimalMoves;
+    }
+
+    public boolean isOnOptimalPath() {
+        return distance == optimalMoves - moves;
+    }
+
+    /**
+     * Index of the first move off the shortest solution, or -1. After a
+     * {@link #reset} off the path it is the move count reset to.
+     */
+    public long firstWastedMove() {
+        return firstWastedMove;
+    }
+
+    public boolean isSolved() {
+        return distance == 0;
+    }
+
+}
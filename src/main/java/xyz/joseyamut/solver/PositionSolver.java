@@ -0,0 +1,78 @@
+package xyz.joseyamut.solver;
+
+import xyz.joseyamut.util.GameState;
+
+/**
+ * Finishes a game from any legal position. Going from the largest disk down,
+ * the first disk that is not on its target needs every smaller disk gathered
+ * on a peg other than its own and the target; it then moves once and the
+ * smaller disks follow it as a tower. Gathering is the same problem on fewer
+ * disks, so the recursion is only as deep as the disk count, and towers are
+ * streamed by the regular solvers. With three pegs this is the optimal
+ * continuation of {@link DistanceOracle}; with more it is legal and moves
+ * towers with Frame-Stewart, but is not always the shortest.
+ */
+public class PositionSolver {
+
+    public static void solve(GameState state, MoveConsumer consumer) {
+        solve(state, state.pegs() - 1, consumer);
+    }
+
+    /**
+     * Streams the moves that bring every disk of {@code state} onto
+     * {@code target}. The state itself is only read.
+     */
+    public static void solve(GameState state, int target, MoveConsumer consumer) {
+        if (target < 0 || target >= state.pegs()) {
+            throw new IllegalArgumentException("No such peg: " + target);
+        }
+        gather(state, state.disks(), target, consumer);
+    }
+
+    // Moves disks 1..disks onto target, each of them still where the state has it
+    private static void gather(GameState state, int disks, int target, MoveConsumer consumer) {
+        for (int disk = disks; disk >= 1; disk--) {
+            int peg = state.peg(disk);
+            if (peg == target) {
+                continue;
+            }
+            if (isTower(state, disk, peg)) {
+                tower(state.pegs(), disk, peg, target, consumer);
+                return;
+            }
+            int spare = spare(state.pegs(), peg, target);
+            gather(state, disk - 1, spare, consumer);
+            consumer.accept(disk, peg, target);
+            tower(state.pegs(), disk - 1, spare, target, consumer);
+            return;
+        }
+    }
+
+    private static boolean isTower(GameState state, int disks, int peg) {
+        for (int disk = 1; disk < disks; disk++) {
+            if (state.peg(disk) != peg) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void tower(int pegs, int disks, int from, int to, MoveConsumer consumer) {
+        if (pegs == GameState.PEGS) {
+            IterativeSolver.solve(disks, from, spare(pegs, from, to), to, consumer);
+        } else {
+            FrameStewartSolver.solve(disks, pegs, from, to, consumer);
+        }
+    }
+
+    // Lowest peg that is neither of the two
+    private static int spare(int pegs, int a, int b) {
+        for (int peg = 0; peg < pegs; peg++) {
+            if (peg != a && peg != b) {
+                return peg;
+            }
+        }
+        throw new IllegalArgumentException("No spare peg among " + pegs);
+    }
+
+}
@@ -0,0 +1,242 @@
+package xyz.joseyamut.solver;
+
+import xyz.joseyamut.util.GameState;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Exhaustive breadth-first search over the 3^n configurations of n disks on
+ * three pegs. A configuration is identified by its base-3 rank, the digit for
+ * disk d being its peg times 3^(d - 1), and the visited configurations are a
+ * bit set over the ranks held off-heap. The graph is deep (2^n - 1 levels from
+ * a full tower) but narrow, so a level is a plain array of ranks, expanded by
+ * every core at once over disjoint slices; setting the visited bit atomically
+ * decides which worker keeps a state reached twice. Twenty disks take about
+ * 420 MB of direct memory, so the JVM needs a large enough
+ * {@code -XX:MaxDirectMemorySize}.
+ */
+public class StateSpaceExplorer {
+
+    // 3^21 bits is the largest bit set a direct buffer can hold
+    public static final int MAX_DISKS = 21;
+
+    // Below this many states a level is cheaper to expand on one thread
+    private static final int PARALLEL_THRESHOLD = 8192;
+    // Frontier states handed to a worker at a time
+    private static final int CHUNK_SIZE = 4096;
+
+    private final int disks;
+    private final long[] powers;
+    private final long states;
+
+    public StateSpaceExplorer(int disks) {
+        if (disks < 1 || disks > MAX_DISKS) {
+            throw new IllegalArgumentException("Disk count must be between 1 and " + MAX_DISKS + ": " + disks);
+        }
+        this.disks = disks;
+        powers = new long[disks + 1];
+        powers[0] = 1;
+        for (int i = 1; i <= disks; i++) {
+            powers[i] = powers[i - 1] * 3;
+        }
+        states = powers[disks];
+    }
+
+    public int disks() {
+        return disks;
+    }
+
+    public long states() {
+        return states;
+    }
+
+    public long rank(GameState state) {
+        if (state.disks() != disks || state.pegs() != GameState.PEGS) {
+            throw new IllegalArgumentException("Expected " + disks + " disks on three pegs: " + state);
+        }
+        long rank = 0;
+        for (int disk = disks; disk >= 1; disk--) {
+            rank = rank * 3 + state.peg(disk);
+        }
+        return rank;
+    }
+
+    public GameState state(long rank) {
+        if (rank < 0 || rank >= states) {
+            throw new IllegalArgumentException("Rank out of range: " + rank);
+        }
+        GameState state = new GameState(disks);
+        for (int disk = 1; disk <= disks; disk++) {
+            state.place(disk, (int) (rank % 3));
+            rank /= 3;
+        }
+        return state;
+    }
+
+    /**
+     * Visits every configuration reachable from {@code start} and counts them
+     * by distance.
+     */
+    public Exploration explore(GameState start) {
+        return search(rank(start), -1);
+    }
+
+    /**
+     * Length of a shortest move sequence between two configurations, found
+     * by searching level by level until the target is reached.
+     */
+    public long distance(GameState start, GameState target) {
+        Exploration exploration = search(rank(start), rank(target));
+        return exploration.eccentricity();
+    }
+
+    private Exploration search(long start, long target) {
+        OffHeapBitSet visited = new OffHeapBitSet(states);
+        visited.set(start);
+        long[] frontier = {start};
+
+        long[] levels = new long[64];
+        int depth = 0;
+        levels[0] = 1;
+        long reached = 1;
+        while (start != target) {
+            long[] next = expand(frontier, visited);
+            if (next.length == 0) {
+                break;
+            }
+            depth++;
+            if (depth == levels.length) {
+                levels = Arrays.copyOf(levels, depth * 2);
+            }
+            levels[depth] = next.length;
+            reached += next.length;
+            if (target >= 0 && visited.get(target)) {
+                break;
+            }
+            frontier = next;
+        }
+        return new Exploration(disks, Arrays.copyOf(levels, depth + 1), reached);
+    }
+
+    // Next level of the search, split across cores once the frontier is wide enough
+    private long[] expand(long[] frontier, OffHeapBitSet visited) {
+        if (frontier.length < PARALLEL_THRESHOLD) {
+            return expand(frontier, 0, frontier.length, visited);
+        }
+        int chunks = (frontier.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        long[][] found = IntStream.range(0, chunks)
+                .parallel()
+                .mapToObj(chunk -> expand(frontier, chunk * CHUNK_SIZE,
+                        Math.min(frontier.length, (chunk + 1) * CHUNK_SIZE), visited))
+                .toArray(long[][]::new);
+
+        int size = 0;
+        for (long[] part : found) {
+            size += part.length;
+        }
+        long[] next = new long[size];
+        int offset = 0;
+        for (long[] part : found) {
+            System.arraycopy(part, 0, next, offset, part.length);
+            offset += part.length;
+        }
+        return next;
+    }
+
+    private long[] expand(long[] frontier, int from, int to, OffHeapBitSet visited) {
+        // Each state has at most three moves
+        long[] next = new long[(to - from) * 3];
+        int size = 0;
+        for (int i = from; i < to; i++) {
+            size = expand(frontier[i], visited, next, size);
+        }
+        return Arrays.copyOf(next, size);
+    }
+
+    private int expand(long rank, OffHeapBitSet visited, long[] next, int size) {
+        // Smallest disk on each peg, 0 for an empty peg
+        int top0 = 0;
+        int top1 = 0;
+        int top2 = 0;
+        long digits = rank;
+        for (int disk = 1; disk <= disks && (top0 == 0 || top1 == 0 || top2 == 0); disk++) {
+            int peg = (int) (digits % 3);
+            digits /= 3;
+            if (peg == 0 && top0 == 0) {
+                top0 = disk;
+            } else if (peg == 1 && top1 == 0) {
+                top1 = disk;
+            } else if (peg == 2 && top2 == 0) {
+                top2 = disk;
+            }
+        }
+
+        size = visit(rank, top0, 0, top1, 1, visited, next, size);
+        size = visit(rank, top0, 0, top2, 2, visited, next, size);
+        size = visit(rank, top1, 1, top0, 0, visited, next, size);
+        size = visit(rank, top1, 1, top2, 2, visited, next, size);
+        size = visit(rank, top2, 2, top0, 0, visited, next, size);
+        return visit(rank, top2, 2, top1, 1, visited, next, size);
+    }
+
+    private int visit(long rank, int disk, int from, int onto, int to,
+                      OffHeapBitSet visited, long[] next, int size) {
+        if (disk == 0 || (onto != 0 && onto < disk)) {
+            return size;
+        }
+        long neighbour = rank + (to - from) * powers[disk - 1];
+        // Only the thread that sets the visited bit queues the state
+        if (visited.set(neighbour)) {
+            next[size++] = neighbour;
+        }
+        return size;
+    }
+
+    /**
+     * Number of configurations at each distance from the start of a search.
+     */
+    public static final class Exploration {
+
+        private final int disks;
+        private final long[] levels;
+        private final long reached;
+
+        Exploration(int disks, long[] levels, long reached) {
+            this.disks = disks;
+            this.levels = levels;
+            this.reached = reached;
+        }
+
+        public int disks() {
+            return disks;
+        }
+
+        /**
+         * Configurations found at distance 0, 1, 2... from the start.
+         */
+        public long[] distribution() {
+            return levels.clone();
+        }
+
+        public long reached() {
+            return reached;
+        }
+
+        /**
+         * Greatest distance from the start. Starting from a full tower it is
+         * the diameter of the state graph, 2^n - 1.
+         */
+        public long eccentricity() {
+            return levels.length - 1;
+        }
+
+        @Override
+        public String toString() {
+            return disks + " disks: " + reached + " states, eccentricity " + eccentricity()
+                    + ", distribution " + Arrays.toString(levels);
+        }
+
+    }
+
+}
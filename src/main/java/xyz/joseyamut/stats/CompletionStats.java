@@ -0,0 +1,107 @@
+package xyz.joseyamut.stats;
+
+import xyz.joseyamut.metrics.LatencyHistogram;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Running totals for one board, a number of disks on a number of pegs:
+ * histograms of durations and optimality gaps, and the fastest games. Every
+ * query reads these and never the records, so its cost does not grow with
+ * the number of games.
+ */
+public class CompletionStats {
+
+    public static final int LEADERBOARD_SIZE = 10;
+
+    // Faster first, fewer moves breaking ties
+    private static final Comparator<GameResult> LEADERBOARD_ORDER = Comparator
+            .comparingLong(GameResult::durationNanos)
+            .thenComparingLong(GameResult::moves);
+
+    private final int disks;
+    private final int pegs;
+    private final LatencyHistogram durations = new LatencyHistogram();
+    private final LatencyHistogram gaps = new LatencyHistogram();
+    private final GameResult[] leaderboard = new GameResult[LEADERBOARD_SIZE];
+    private int leaders;
+    private long games;
+    private long optimalGames;
+    private long invalidAttempts;
+
+    CompletionStats(int disks, int pegs) {
+        this.disks = disks;
+        this.pegs = pegs;
+    }
+
+    void add(GameResult result) {
+        durations.record(result.durationNanos());
+        gaps.record(result.optimalityGap());
+        games++;
+        invalidAttempts += result.invalidAttempts();
+        if (result.isOptimal()) {
+            optimalGames++;
+        }
+
+        // Insertion into the short sorted board, the slowest leader drops off
+        if (leaders == LEADERBOARD_SIZE && LEADERBOARD_ORDER.compare(result, leaderboard[leaders - 1]) >= 0) {
+            return;
+        }
+        int i = Math.min(leaders, LEADERBOARD_SIZE - 1);
+        while (i > 0 && LEADERBOARD_ORDER.compare(result, leaderboard[i - 1]) < 0) {
+            leaderboard[i] = leaderboard[i - 1];
+            i--;
+        }
+        leaderboard[i] = result;
+        leaders = Math.min(leaders + 1, LEADERBOARD_SIZE);
+    }
+
+    public int disks() {
+        return disks;
+    }
+
+    public int pegs() {
+        return pegs;
+    }
+
+    public long games() {
+        return games;
+    }
+
+    public long optimalGames() {
+        return optimalGames;
+    }
+
+    public long invalidAttempts() {
+        return invalidAttempts;
+    }
+
+    /**
+     * Duration under which the given percentage (0 to 100) of games were
+     * finished, within the histogram's precision.
+     */
+    public long durationPercentile(double percentile) {
+        return durations.percentile(percentile);
+    }
+
+    public long gapPercentile(double percentile) {
+        return gaps.percentile(percentile);
+    }
+
+    /**
+     * Percentage of games finished faster than {@code durationNanos}.
+     */
+    public double fasterThan(long durationNanos) {
+        return games == 0 ? 0 : durations.countBelow(durationNanos) * 100.0 / games;
+    }
+
+    /**
+     * The fastest games, fastest first.
+     */
+    public List<GameResult> leaderboard() {
+        return List.of(Arrays.copyOf(leaderboard, leaders));
+    }
+
+}
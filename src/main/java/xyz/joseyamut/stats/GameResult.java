@@ -0,0 +1,33 @@
+package xyz.joseyamut.stats;
+
+import xyz.joseyamut.solver.FrameStewart;
+import xyz.joseyamut.solver.IterativeSolver;
+import xyz.joseyamut.util.GameState;
+
+/**
+ * One finished game. {@code optimalityGap} is the number of moves beyond the
+ * shortest solution for the disks and pegs. The moves, and so the gap, are
+ * unsigned, since 64 disks on three pegs take 2^64 - 1 moves.
+ */
+public record GameResult(long completedAt,
+                         int disks,
+                         int pegs,
+                         long durationNanos,
+                         long moves,
+                         long optimalityGap,
+                         int invalidAttempts) {
+
+    public static GameResult of(long completedAt, int disks, int pegs, long durationNanos, long moves,
+                                int invalidAttempts) {
+        // FrameStewart saturates at Long.MAX_VALUE, the three peg count is exact
+        long shortest = pegs == GameState.PEGS
+                ? IterativeSolver.moveCount(disks) : FrameStewart.moveCount(disks, pegs);
+        return new GameResult(completedAt, disks, pegs, durationNanos, moves,
+                moves - shortest, invalidAttempts);
+    }
+
+    public boolean isOptimal() {
+        return optimalityGap == 0;
+    }
+
+}
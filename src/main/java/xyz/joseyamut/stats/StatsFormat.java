@@ -0,0 +1,32 @@
+package xyz.joseyamut.stats;
+
+/**
+ * Layout of the results file. A 32 byte header holding the number of
+ * records is followed by one fixed 40 byte record per finished game, all
+ * little-endian.
+ */
+final class StatsFormat {
+
+    static final int MAGIC = 0x544F4843; // "TOHC"
+    static final short VERSION = 1;
+
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 4;
+    static final int RECORD_SIZE_OFFSET = 6;
+    static final int RECORD_COUNT_OFFSET = 8;
+    static final int HEADER_SIZE = 32;
+
+    // Within a record
+    static final int COMPLETED_AT_OFFSET = 0;
+    static final int DURATION_OFFSET = 8;
+    static final int MOVES_OFFSET = 16;
+    static final int GAP_OFFSET = 24;
+    static final int INVALID_OFFSET = 32;
+    static final int DISKS_OFFSET = 36;
+    static final int PEGS_OFFSET = 37;
+    static final int RECORD_SIZE = 40;
+
+    private StatsFormat() {
+    }
+
+}
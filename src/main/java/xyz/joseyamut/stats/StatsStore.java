@@ -0,0 +1,164 @@
+package xyz.joseyamut.stats;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finished games, appended to a memory-mapped file of fixed-width records
+ * that doubles in size as it fills. The file is read once on open to build
+ * a {@link CompletionStats} per board, and every query is answered from
+ * those. The record count in the header is written after each record, so a
+ * store cut short by a crash loses at most the game being written. Meant to
+ * be used from one thread.
+ */
+public class StatsStore implements Closeable {
+
+    private static final int INITIAL_RECORDS = 1024;
+
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long recordCount;
+    // Keyed by pegs << 8 | disks
+    private final Map<Integer, CompletionStats> boards = new HashMap<>();
+
+    private StatsStore(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Opens the store, creating the file when it does not exist.
+     */
+    public static StatsStore open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        StatsStore store = new StatsStore(channel);
+        try {
+            store.load(file);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return store;
+    }
+
+    private void load(Path file) throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            map(StatsFormat.HEADER_SIZE + (long) INITIAL_RECORDS * StatsFormat.RECORD_SIZE);
+            buffer.putInt(StatsFormat.MAGIC_OFFSET, StatsFormat.MAGIC);
+            buffer.putShort(StatsFormat.VERSION_OFFSET, StatsFormat.VERSION);
+            buffer.putShort(StatsFormat.RECORD_SIZE_OFFSET, (short) StatsFormat.RECORD_SIZE);
+            return;
+        }
+
+        map(size);
+        if (size < StatsFormat.HEADER_SIZE || buffer.getInt(StatsFormat.MAGIC_OFFSET) != StatsFormat.MAGIC) {
+            throw new IOException("Not a results file: " + file);
+        }
+        if (buffer.getShort(StatsFormat.VERSION_OFFSET) != StatsFormat.VERSION
+                || buffer.getShort(StatsFormat.RECORD_SIZE_OFFSET) != StatsFormat.RECORD_SIZE) {
+            throw new IOException("Unsupported results version "
+                    + buffer.getShort(StatsFormat.VERSION_OFFSET) + ": " + file);
+        }
+        long count = buffer.getLong(StatsFormat.RECORD_COUNT_OFFSET);
+        if (count < 0 || StatsFormat.HEADER_SIZE + count * StatsFormat.RECORD_SIZE > size) {
+            throw new IOException("Results file is cut short: " + file);
+        }
+        for (recordCount = 0; recordCount < count; recordCount++) {
+            GameResult result = readRecord(recordCount);
+            board(result.disks(), result.pegs()).add(result);
+        }
+    }
+
+    public void append(GameResult result) throws IOException {
+        long end = offsetOf(recordCount + 1);
+        if (end > Integer.MAX_VALUE) {
+            throw new IOException("Results file is full");
+        }
+        if (end > buffer.capacity()) {
+            map(Math.min(Math.max(end, buffer.capacity() * 2L), Integer.MAX_VALUE));
+        }
+
+        int offset = (int) offsetOf(recordCount);
+        buffer.putLong(offset + StatsFormat.COMPLETED_AT_OFFSET, result.completedAt());
+        buffer.putLong(offset + StatsFormat.DURATION_OFFSET, result.durationNanos());
+        buffer.putLong(offset + StatsFormat.MOVES_OFFSET, result.moves());
+        buffer.putLong(offset + StatsFormat.GAP_OFFSET, result.optimalityGap());
+        buffer.putInt(offset + StatsFormat.INVALID_OFFSET, result.invalidAttempts());
+        buffer.put(offset + StatsFormat.DISKS_OFFSET, (byte) result.disks());
+        buffer.put(offset + StatsFormat.PEGS_OFFSET, (byte) result.pegs());
+        buffer.putLong(StatsFormat.RECORD_COUNT_OFFSET, ++recordCount);
+
+        board(result.disks(), result.pegs()).add(result);
+    }
+
+    public long recordCount() {
+        return recordCount;
+    }
+
+    public GameResult read(long index) {
+        if (index < 0 || index >= recordCount) {
+            throw new IndexOutOfBoundsException("No record " + index + " of " + recordCount);
+        }
+        return readRecord(index);
+    }
+
+    private GameResult readRecord(long index) {
+        int offset = (int) offsetOf(index);
+        return new GameResult(
+                buffer.getLong(offset + StatsFormat.COMPLETED_AT_OFFSET),
+                buffer.get(offset + StatsFormat.DISKS_OFFSET),
+                buffer.get(offset + StatsFormat.PEGS_OFFSET),
+                buffer.getLong(offset + StatsFormat.DURATION_OFFSET),
+                buffer.getLong(offset + StatsFormat.MOVES_OFFSET),
+                buffer.getLong(offset + StatsFormat.GAP_OFFSET),
+                buffer.getInt(offset + StatsFormat.INVALID_OFFSET));
+    }
+
+    /**
+     * Totals for a board, or null when no game has been finished on it.
+     */
+    public CompletionStats stats(int disks, int pegs) {
+        return boards.get(pegs << 8 | disks);
+    }
+
+    /**
+     * Totals for every board played, by pegs and then disks.
+     */
+    public List<CompletionStats> allStats() {
+        List<CompletionStats> all = new ArrayList<>(boards.values());
+        all.sort(Comparator.comparingInt(CompletionStats::pegs).thenComparingInt(CompletionStats::disks));
+        return all;
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        buffer = null;
+        channel.close();
+    }
+
+    private CompletionStats board(int disks, int pegs) {
+        return boards.computeIfAbsent(pegs << 8 | disks, key -> new CompletionStats(disks, pegs));
+    }
+
+    private static long offsetOf(long index) {
+        return StatsFormat.HEADER_SIZE + index * StatsFormat.RECORD_SIZE;
+    }
+
+    private void map(long size) throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+}
@@ -10,15 +10,24 @@ public class ClickedStackArea {
                                                 int pointX, int pointY,
                                                 ArrayList<Rectangle> areas,
                                                 ArrayList<FixedStack> stacks) {
+        int i = indexOfArea(pointX, pointY, areas);
+        if (i >= 0) {
+            stackMap.put(key, stacks.get(i));
+            return true;
+        }
+        return false;
+    }
+
+    public static int indexOfArea(int pointX, int pointY,
+                                  ArrayList<Rectangle> areas) {
         int i = 0;
         for (Rectangle area : areas) {
             if (area.contains(pointX, pointY)) {
-                stackMap.put(key, stacks.get(i));
-                return true;
+                return i;
             }
             i++;
         }
-        return false;
+        return -1;
     }
 
 }
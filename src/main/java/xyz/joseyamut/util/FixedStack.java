@@ -1,5 +1,7 @@
 package xyz.joseyamut.util;
 
+import java.util.Arrays;
+
 public class FixedStack {
 
     private int top = 0;
@@ -31,4 +33,26 @@ public class FixedStack {
         return elements[top];
     }
 
+    public int capacity() {
+        return elements.length;
+    }
+
+    // Read-only access, index 0 is the bottom of the stack
+    public int get(int index) {
+        if (index < 0 || index >= top) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + top);
+        }
+        return elements[index];
+    }
+
+    // Copies the stack, bottom first, and returns the number of elements copied
+    public int copyInto(int[] dst) {
+        System.arraycopy(elements, 0, dst, 0, top);
+        return top;
+    }
+
+    public int[] snapshot() {
+        return Arrays.copyOf(elements, top);
+    }
+
 }
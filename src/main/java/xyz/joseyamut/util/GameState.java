@@ -0,0 +1,223 @@
+package xyz.joseyamut.util;
+
+/**
+ * Peg of every disk packed two bits per disk: disks 1 to 32 in {@code lo},
+ * disks 33 to 64 in {@code hi}. Disk 1 is the smallest and pegs are numbered
+ * from 0 (X); two bits leave room for up to four pegs. Top-of-peg lookups are
+ * done on whole words, so none of them depend on the number of disks. Whether
+ * a move is legal is left to
+ * {@link xyz.joseyamut.validate.MoveValidator#check(GameState, int, int)}.
+ */
+public final class GameState {
+
+    public static final int MAX_DISKS = 64;
+    public static final int PEGS = 3;
+    public static final int MAX_PEGS = 4;
+
+    private static final long LOW_BITS = 0x5555555555555555L;
+
+    private final int disks;
+    private final int pegs;
+    private final long loValid;
+    private final long hiValid;
+    private long lo;
+    private long hi;
+
+    public GameState(int disks) {
+        this(disks, PEGS);
+    }
+
+    public GameState(int disks, int pegs) {
+        if (disks < 0 || disks > MAX_DISKS) {
+            throw new IllegalArgumentException("Disk count must be between 0 and " + MAX_DISKS + ": " + disks);
+        }
+        if (pegs < PEGS || pegs > MAX_PEGS) {
+            throw new IllegalArgumentException("Peg count must be between " + PEGS + " and " + MAX_PEGS + ": " + pegs);
+        }
+        this.disks = disks;
+        this.pegs = pegs;
+        loValid = LOW_BITS & slotsBelow(disks);
+        hiValid = LOW_BITS & slotsBelow(disks - 32);
+    }
+
+    public GameState(GameState other) {
+        this(other.disks, other.pegs);
+        copyFrom(other);
+    }
+
+    public int disks() {
+        return disks;
+    }
+
+    public int pegs() {
+        return pegs;
+    }
+
+    public long lo() {
+        return lo;
+    }
+
+    public long hi() {
+        return hi;
+    }
+
+    public int peg(int disk) {
+        int shift = (disk - 1) << 1;
+        long word = disk > 32 ? hi : lo;
+        return (int) (word >>> shift) & 3;
+    }
+
+    public void place(int disk, int peg) {
+        int shift = (disk - 1) << 1;
+        long slot = 3L << shift;
+        long value = (long) peg << shift;
+        if (disk > 32) {
+            hi = (hi & ~slot) | value;
+        } else {
+            lo = (lo & ~slot) | value;
+        }
+    }
+
+    /**
+     * Smallest disk on the peg, or 0 when the peg is empty.
+     */
+    public int topDisk(int peg) {
+        long m = occupancy(lo, peg, loValid);
+        if (m != 0) {
+            return (Long.numberOfTrailingZeros(m) >>> 1) + 1;
+        }
+        m = occupancy(hi, peg, hiValid);
+        if (m != 0) {
+            return (Long.numberOfTrailingZeros(m) >>> 1) + 33;
+        }
+        return 0;
+    }
+
+    /**
+     * Largest disk on the peg that is smaller than {@code disk}, or 0. Passing
+     * {@code disks() + 1} gives the bottom disk, so a peg can be walked from
+     * bottom to top without copying it.
+     */
+    public int diskAbove(int peg, int disk) {
+        int limit = disk - 1;
+        if (limit > 32) {
+            long m = occupancy(hi, peg, hiValid) & slotsBelow(limit - 32);
+            if (m != 0) {
+                return ((63 - Long.numberOfLeadingZeros(m)) >>> 1) + 33;
+            }
+            limit = 32;
+        }
+        long m = occupancy(lo, peg, loValid) & slotsBelow(limit);
+        return m == 0 ? 0 : ((63 - Long.numberOfLeadingZeros(m)) >>> 1) + 1;
+    }
+
+    public int bottomDisk(int peg) {
+        return diskAbove(peg, disks + 1);
+    }
+
+    public int size(int peg) {
+        return Long.bitCount(occupancy(lo, peg, loValid))
+                + Long.bitCount(occupancy(hi, peg, hiValid));
+    }
+
+    public boolean isEmpty(int peg) {
+        return topDisk(peg) == 0;
+    }
+
+    public boolean isComplete(int peg) {
+        return size(peg) == disks;
+    }
+
+    /**
+     * Moves the top disk of {@code from} onto {@code to} without checking the
+     * rules, and returns that disk (0 if {@code from} was empty).
+     */
+    public int move(int from, int to) {
+        int disk = topDisk(from);
+        if (disk != 0) {
+            place(disk, to);
+        }
+        return disk;
+    }
+
+    public void copyFrom(GameState other) {
+        if (other.disks != disks || other.pegs != pegs) {
+            throw new IllegalArgumentException("Shape mismatch: " + other.disks + " disks on " + other.pegs
+                    + " pegs != " + disks + " disks on " + pegs + " pegs");
+        }
+        lo = other.lo;
+        hi = other.hi;
+    }
+
+    /**
+     * Sets the position from words taken with {@link #lo()} and {@link #hi()}
+     * of a state of the same shape.
+     */
+    public void restore(long lo, long hi) {
+        this.lo = lo;
+        this.hi = hi;
+    }
+
+    public GameState copy() {
+        return new GameState(this);
+    }
+
+    /**
+     * Top disk of a peg in a bare word of up to 32 disks, laid out like
+     * {@link #lo()}, or 0 when the peg is empty.
+     */
+    public static int topDisk(long word, int disks, int peg) {
+        long m = occupancy(word, peg, LOW_BITS & slotsBelow(disks));
+        return m == 0 ? 0 : (Long.numberOfTrailingZeros(m) >>> 1) + 1;
+    }
+
+    /**
+     * Word of up to 32 disks with all of them on the peg.
+     */
+    public static long tower(int disks, int peg) {
+        return LOW_BITS * peg & slotsBelow(disks);
+    }
+
+    // One bit set (the low bit of the slot) for every disk sitting on the peg
+    private static long occupancy(long word, int peg, long valid) {
+        long x = word ^ (LOW_BITS * peg);
+        return ~(x | (x >>> 1)) & valid;
+    }
+
+    private static long slotsBelow(int slots) {
+        if (slots <= 0) {
+            return 0;
+        }
+        return slots >= 32 ? -1L : (1L << (slots << 1)) - 1;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof GameState other)) {
+            return false;
+        }
+        return disks == other.disks && pegs == other.pegs && lo == other.lo && hi == other.hi;
+    }
+
+    @Override
+    public int hashCode() {
+        return (Long.hashCode(lo * 31 + hi) * 31 + disks) * 31 + pegs;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int peg = 0; peg < pegs; peg++) {
+            sb.append(peg == 0 ? "" : " ").append(peg).append('[');
+            for (int disk = bottomDisk(peg); disk != 0; disk = diskAbove(peg, disk)) {
+                sb.append(disk).append(disk == topDisk(peg) ? "" : ",");
+            }
+            sb.append(']');
+        }
+        return sb.toString();
+    }
+
+}
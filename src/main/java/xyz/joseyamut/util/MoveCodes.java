@@ -0,0 +1,48 @@
+package xyz.joseyamut.util;
+
+/**
+ * Three bit codes for the six possible moves between three pegs, used where
+ * moves are stored in bulk. Code 7 marks an unused slot.
+ */
+public final class MoveCodes {
+
+    public static final int BITS = 3;
+    public static final int MASK = (1 << BITS) - 1;
+    public static final int EMPTY = MASK;
+    // 63 of the 64 bits hold codes, the sign bit stays clear
+    public static final int PER_LONG = Long.SIZE / BITS;
+    public static final long EMPTY_LONG = (1L << (PER_LONG * BITS)) - 1;
+
+    private MoveCodes() {
+    }
+
+    public static int encode(int from, int to) {
+        if (from == to || from < 0 || from > 2 || to < 0 || to > 2) {
+            throw new IllegalArgumentException("Not a move: " + from + " -> " + to);
+        }
+        return (from << 1) | (to > from ? to - 1 : to);
+    }
+
+    public static int from(int code) {
+        return code >>> 1;
+    }
+
+    public static int to(int code) {
+        int to = code & 1;
+        return to >= (code >>> 1) ? to + 1 : to;
+    }
+
+    public static boolean isValid(int code) {
+        return code >= 0 && code < 6;
+    }
+
+    public static int codeAt(long word, int slot) {
+        return (int) (word >>> (slot * BITS)) & MASK;
+    }
+
+    public static long withCode(long word, int slot, int code) {
+        int shift = slot * BITS;
+        return (word & ~((long) MASK << shift)) | ((long) code << shift);
+    }
+
+}
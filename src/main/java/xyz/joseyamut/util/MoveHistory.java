@@ -0,0 +1,180 @@
+package xyz.joseyamut.util;
+
+/**
+ * Moves of a game as four bit codes, source and destination peg, in a ring
+ * of longs, with a copy of the position every {@link #CHECKPOINT_INTERVAL}
+ * moves. Undo and redo read one code; a jump to any move restores the
+ * checkpoint below it and replays fewer than {@link #CHECKPOINT_INTERVAL}
+ * moves. The ring doubles as the game grows, and once it is at its largest
+ * the oldest moves are dropped, one checkpoint interval at a time.
+ * Move indexes count from the start of the game either way.
+ */
+public class MoveHistory {
+
+    public static final int CHECKPOINT_INTERVAL = 256;
+    // 32 MB of codes and 4 MB of checkpoints at most
+    public static final long DEFAULT_MAX_MOVES = 1L << 26;
+
+    private static final int CODE_BITS = 4;
+    private static final int CODES_PER_LONG = Long.SIZE / CODE_BITS;
+    private static final int LONGS_PER_INTERVAL = CHECKPOINT_INTERVAL / CODES_PER_LONG;
+    private static final int INITIAL_MOVES = 4096;
+
+    private final long maxMoves;
+    private long[] codes;
+    // lo and hi of the position before every CHECKPOINT_INTERVAL-th move
+    private long[] checkpoints;
+    private long start;
+    private long position;
+    private long end;
+
+    public MoveHistory() {
+        this(DEFAULT_MAX_MOVES);
+    }
+
+    public MoveHistory(long maxMoves) {
+        if (maxMoves < CHECKPOINT_INTERVAL || maxMoves > 1L << 34 || Long.bitCount(maxMoves) != 1) {
+            throw new IllegalArgumentException("Move limit must be a power of two between "
+                    + CHECKPOINT_INTERVAL + " and 2^34: " + maxMoves);
+        }
+        this.maxMoves = maxMoves;
+        int moves = (int) Math.min(INITIAL_MOVES, maxMoves);
+        codes = new long[moves / CODES_PER_LONG];
+        checkpoints = new long[moves / CHECKPOINT_INTERVAL * 2];
+    }
+
+    /**
+     * Index of the oldest move still held.
+     */
+    public long start() {
+        return start;
+    }
+
+    /**
+     * Number of moves applied to the position, from the start of the game.
+     */
+    public long position() {
+        return position;
+    }
+
+    /**
+     * Index after the last move held, undone ones included.
+     */
+    public long end() {
+        return end;
+    }
+
+    public boolean canUndo() {
+        return position > start;
+    }
+
+    public boolean canRedo() {
+        return position < end;
+    }
+
+    /**
+     * Adds a move about to be applied to {@code before}. Moves that were
+     * undone are forgotten.
+     */
+    public void record(GameState before, int from, int to) {
+        end = position;
+        if (end - start == (long) codes.length * CODES_PER_LONG) {
+            makeRoom();
+        }
+        if (position % CHECKPOINT_INTERVAL == 0) {
+            int slot = checkpointSlot(position / CHECKPOINT_INTERVAL);
+            checkpoints[slot] = before.lo();
+            checkpoints[slot + 1] = before.hi();
+        }
+        int word = wordOf(position);
+        int shift = shiftOf(position);
+        codes[word] = (codes[word] & ~(0xFL << shift)) | (long) (from << 2 | to) << shift;
+        position = ++end;
+    }
+
+    public boolean undo(GameState state) {
+        if (!canUndo()) {
+            return false;
+        }
+        int code = code(--position);
+        state.move(code & 3, code >>> 2);
+        return true;
+    }
+
+    public boolean redo(GameState state) {
+        if (!canRedo()) {
+            return false;
+        }
+        int code = code(position++);
+        state.move(code >>> 2, code & 3);
+        return true;
+    }
+
+    /**
+     * Brings {@code state}, which must be at {@link #position()}, to the
+     * position after {@code move} moves.
+     */
+    public void jumpTo(long move, GameState state) {
+        if (move < start || move > end) {
+            throw new IllegalArgumentException("Move " + move + " is not between " + start + " and " + end);
+        }
+        // Close by, stepping is cheaper than restoring a checkpoint
+        if (Math.abs(move - position) < CHECKPOINT_INTERVAL) {
+            while (position < move) {
+                redo(state);
+            }
+            while (position > move) {
+                undo(state);
+            }
+            return;
+        }
+
+        // The interval holding the move, or the last one when jumping to the end
+        long interval = Math.min(move, end - 1) / CHECKPOINT_INTERVAL;
+        int slot = checkpointSlot(interval);
+        state.restore(checkpoints[slot], checkpoints[slot + 1]);
+        position = interval * CHECKPOINT_INTERVAL;
+        while (position < move) {
+            redo(state);
+        }
+    }
+
+    public void clear() {
+        start = position = end = 0;
+    }
+
+    private void makeRoom() {
+        if ((long) codes.length * CODES_PER_LONG == maxMoves) {
+            start += CHECKPOINT_INTERVAL;
+            return;
+        }
+        long[] oldCodes = codes;
+        long[] oldCheckpoints = checkpoints;
+        codes = new long[oldCodes.length * 2];
+        checkpoints = new long[oldCheckpoints.length * 2];
+        // Intervals keep their place modulo the old size, copy them one by one
+        for (long interval = start / CHECKPOINT_INTERVAL; interval * CHECKPOINT_INTERVAL < end; interval++) {
+            System.arraycopy(oldCodes, (int) (interval * LONGS_PER_INTERVAL & (oldCodes.length - 1)),
+                    codes, wordOf(interval * CHECKPOINT_INTERVAL), LONGS_PER_INTERVAL);
+            System.arraycopy(oldCheckpoints, (int) (interval * 2 & (oldCheckpoints.length - 1)),
+                    checkpoints, checkpointSlot(interval), 2);
+        }
+    }
+
+    private int code(long move) {
+        return (int) (codes[wordOf(move)] >>> shiftOf(move)) & 0xF;
+    }
+
+    private int wordOf(long move) {
+        return (int) (move / CODES_PER_LONG & (codes.length - 1));
+    }
+
+    private static int shiftOf(long move) {
+        return (int) (move % CODES_PER_LONG) * CODE_BITS;
+    }
+
+    private int checkpointSlot(long interval) {
+        return (int) (interval * 2 & (checkpoints.length - 1));
+    }
+
+}
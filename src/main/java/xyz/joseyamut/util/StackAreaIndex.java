@@ -0,0 +1,55 @@
+package xyz.joseyamut.util;
+
+import java.awt.*;
+import java.util.Arrays;
+
+/**
+ * Constant time lookup of the stack area under a point. Every pixel column
+ * of the canvas holds the index of the first area covering it, so a lookup is
+ * one array read and one range check whatever the number of areas. The areas
+ * are expected to share their vertical extent, as the stack areas of a stage
+ * do. Rebuilt only when the areas change; lookups allocate nothing.
+ */
+public class StackAreaIndex {
+
+    private static final byte NONE = -1;
+
+    private byte[] columns = new byte[0];
+    private int top;
+    private int bottom;
+
+    public void rebuild(Rectangle[] areas, int width) {
+        if (areas.length > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many areas: " + areas.length);
+        }
+        if (columns.length != width) {
+            columns = new byte[Math.max(width, 0)];
+        }
+        Arrays.fill(columns, NONE);
+        top = Integer.MAX_VALUE;
+        bottom = Integer.MIN_VALUE;
+        // Filled last to first so the first area wins where they overlap,
+        // like a linear scan would
+        for (int i = areas.length - 1; i >= 0; i--) {
+            Rectangle area = areas[i];
+            int from = Math.max(area.x, 0);
+            int to = Math.min(area.x + area.width, columns.length);
+            for (int x = from; x < to; x++) {
+                columns[x] = (byte) i;
+            }
+            top = Math.min(top, area.y);
+            bottom = Math.max(bottom, area.y + area.height);
+        }
+    }
+
+    /**
+     * Index of the area containing the point, or -1.
+     */
+    public int indexOf(int x, int y) {
+        if (x < 0 || x >= columns.length || y < top || y >= bottom) {
+            return -1;
+        }
+        return columns[x];
+    }
+
+}
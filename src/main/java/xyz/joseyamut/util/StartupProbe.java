@@ -0,0 +1,31 @@
+package xyz.joseyamut.util;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Reports how long the process took to get ready, for the build's startup
+ * report. Only active with {@code -Dtoh.startupProbe=true}; it then prints one
+ * {@code startup <what> <millis> ms} line on standard error.
+ */
+public class StartupProbe {
+
+    public static final String PROPERTY = "toh.startupProbe";
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(PROPERTY);
+    }
+
+    public static void report(String what) {
+        if (!isEnabled()) {
+            return;
+        }
+        Instant started = ProcessHandle.current().info().startInstant().orElse(null);
+        if (started == null) {
+            System.err.println("startup " + what + " unknown");
+            return;
+        }
+        System.err.println("startup " + what + " " + Duration.between(started, Instant.now()).toMillis() + " ms");
+    }
+
+}
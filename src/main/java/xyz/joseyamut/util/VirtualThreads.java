@@ -0,0 +1,48 @@
+package xyz.joseyamut.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Starts background work on a virtual thread where the runtime has them
+ * (Java 21 and later) and on a daemon platform thread otherwise, so the code
+ * still runs on the Java 17 baseline.
+ */
+public class VirtualThreads {
+
+    private static final MethodHandle START_VIRTUAL_THREAD = startVirtualThread();
+
+    public static boolean isAvailable() {
+        return START_VIRTUAL_THREAD != null;
+    }
+
+    public static Thread start(String name, Runnable task) {
+        Thread thread = null;
+        if (START_VIRTUAL_THREAD != null) {
+            try {
+                thread = (Thread) START_VIRTUAL_THREAD.invokeExact(task);
+            } catch (Throwable e) {
+                // Preview builds without --enable-preview refuse, use a platform thread
+            }
+        }
+        if (thread != null) {
+            thread.setName(name);
+            return thread;
+        }
+        thread = new Thread(task, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private static MethodHandle startVirtualThread() {
+        try {
+            return MethodHandles.publicLookup().findStatic(Thread.class, "startVirtualThread",
+                    MethodType.methodType(Thread.class, Runnable.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,87 @@
+package xyz.joseyamut.validate;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Validates or scores many recordings concurrently. Each worker thread owns
+ * one direct buffer that every file it reads goes through, and results come
+ * back in the order the files were given. A file that cannot be read is
+ * reported as {@link Violation#UNREADABLE} and the batch goes on.
+ */
+@Slf4j
+public class BatchValidator {
+
+    private static final int SCRATCH_SIZE = 1 << 20;
+
+    private static final ThreadLocal<ByteBuffer> scratch =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(SCRATCH_SIZE));
+
+    public static List<ValidationResult> validateAll(List<Path> files) throws InterruptedException {
+        return validateAll(files, Runtime.getRuntime().availableProcessors());
+    }
+
+    public static List<ValidationResult> validateAll(List<Path> files, int threads) throws InterruptedException {
+        return runAll(files, threads, BatchValidator::validate);
+    }
+
+    public static List<GameScore> scoreAll(List<Path> files, int threads) throws InterruptedException {
+        return runAll(files, threads, BatchValidator::score);
+    }
+
+    private static <T> List<T> runAll(List<Path> files, int threads, Function<Path, T> task)
+            throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "toh-validator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<T>> futures = new ArrayList<>(files.size());
+            for (Path file : files) {
+                futures.add(pool.submit(() -> task.apply(file)));
+            }
+
+            List<T> results = new ArrayList<>(files.size());
+            for (Future<T> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    public static ValidationResult validate(Path file) {
+        try {
+            return MoveValidator.validate(file, scratch.get());
+        } catch (IOException | RuntimeException e) {
+            log.warn("{}: {}", file, e.getMessage());
+            return new ValidationResult(file, 0, 0, 0, Violation.UNREADABLE);
+        }
+    }
+
+    public static GameScore score(Path file) {
+        try {
+            return GameScorer.score(file, scratch.get());
+        } catch (IOException | RuntimeException e) {
+            log.warn("{}: {}", file, e.getMessage());
+            return GameScore.unreadable(file);
+        }
+    }
+
+}
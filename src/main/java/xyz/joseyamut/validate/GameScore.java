@@ -0,0 +1,41 @@
+package xyz.joseyamut.validate;
+
+import java.nio.file.Path;
+
+/**
+ * How close one game came to the shortest solution. {@code distance} is the
+ * number of moves still missing at the end, {@code firstWastedMove} the
+ * 0-based index of the first move off the shortest solution, or -1. When a
+ * move is illegal, scoring stops there and {@code moves} is its index.
+ */
+public record GameScore(Path file, int disks, long moves, long distance, long wastedMoves, long firstWastedMove,
+                        Violation violation) {
+
+    public static GameScore unreadable(Path file) {
+        return new GameScore(file, 0, 0, 0, 0, -1, Violation.UNREADABLE);
+    }
+
+    public boolean isOptimal() {
+        return violation == Violation.NONE && distance == 0 && wastedMoves == 0;
+    }
+
+    @Override
+    public String toString() {
+        String name = file == null ? "moves" : file.toString();
+        if (violation != Violation.NONE) {
+            return name + ": move " + moves + ": " + violation.message();
+        }
+        StringBuilder line = new StringBuilder(name).append(": ")
+                .append(moves).append(" moves with ").append(disks).append(" disks, ");
+        if (wastedMoves == 0) {
+            line.append("optimal");
+        } else {
+            line.append(wastedMoves).append(" wasted from move ").append(firstWastedMove);
+        }
+        if (distance != 0) {
+            line.append(", ").append(Long.toUnsignedString(distance)).append(" moves short of the goal");
+        }
+        return line.toString();
+    }
+
+}
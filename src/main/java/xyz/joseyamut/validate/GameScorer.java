@@ -0,0 +1,69 @@
+package xyz.joseyamut.validate;
+
+import xyz.joseyamut.record.GameRecording;
+import xyz.joseyamut.record.SolutionFile;
+import xyz.joseyamut.solver.OptimalityTracker;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+/**
+ * Scores recordings and exported solutions against the shortest solution in
+ * one streaming pass, checking the rules on the way.
+ */
+public class GameScorer {
+
+    private final MoveValidator validator;
+    private final OptimalityTracker tracker;
+
+    public GameScorer(int disks) {
+        validator = new MoveValidator(disks);
+        tracker = new OptimalityTracker(disks);
+    }
+
+    /**
+     * Applies the move if it is legal. Returns false, and ignores every
+     * further move, once an illegal one has been seen.
+     */
+    public boolean accept(int from, int to) {
+        if (!validator.accept(from, to)) {
+            return false;
+        }
+        tracker.accept(from, to);
+        return true;
+    }
+
+    public GameScore result(Path file) {
+        Violation violation = validator.finish();
+        if (violation == Violation.NOT_SOLVED) {
+            // Unfinished games are scored by the distance left
+            violation = Violation.NONE;
+        }
+        return new GameScore(file, validator.state().disks(), tracker.moves(), tracker.distance(),
+                tracker.wastedMoves(), tracker.firstWastedMove(), violation);
+    }
+
+    /**
+     * Scores a recording or an exported solution, reading it through
+     * {@code scratch} like {@link MoveValidator#validate(Path, ByteBuffer)}.
+     */
+    public static GameScore score(Path file, ByteBuffer scratch) throws IOException {
+        if (SolutionFile.isSolution(file)) {
+            SolutionFile solution = SolutionFile.open(file);
+            GameScorer scorer = new GameScorer(solution.disks());
+            solution.scan(scratch, scorer::accept);
+            return scorer.result(file);
+        }
+        GameRecording recording = GameRecording.read(file, scratch);
+        GameScorer scorer = new GameScorer(recording.disks());
+        GameRecording.Cursor cursor = recording.cursor();
+        while (cursor.next()) {
+            if (!scorer.accept(cursor.from(), cursor.to())) {
+                break;
+            }
+        }
+        return scorer.result(file);
+    }
+
+}
@@ -0,0 +1,134 @@
+package xyz.joseyamut.validate;
+
+import xyz.joseyamut.record.GameRecording;
+import xyz.joseyamut.record.SolutionFile;
+import xyz.joseyamut.util.GameState;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+/**
+ * The rules of the game, independent of any input source. Feed moves through
+ * {@link #accept(int, int)} and call {@link #finish()} once the sequence ends.
+ */
+public class MoveValidator {
+
+    private final GameState state;
+    private final int targetPeg;
+    private long moves;
+    private long failedAt;
+    private Violation violation;
+
+    public MoveValidator(int disks) {
+        this(disks, GameState.PEGS);
+    }
+
+    public MoveValidator(int disks, int pegs) {
+        state = new GameState(disks, pegs);
+        targetPeg = pegs - 1;
+        failedAt = -1;
+        violation = Violation.NONE;
+    }
+
+    public static Violation check(GameState state, int from, int to) {
+        Violation violation = checkPegs(state.pegs(), from, to);
+        if (violation != Violation.NONE) {
+            return violation;
+        }
+        return checkDisks(state.topDisk(from), state.topDisk(to));
+    }
+
+    /**
+     * Same rules over a bare word of up to 32 disks, laid out like
+     * {@link GameState#lo()}.
+     */
+    public static Violation check(long word, int disks, int pegs, int from, int to) {
+        Violation violation = checkPegs(pegs, from, to);
+        if (violation != Violation.NONE) {
+            return violation;
+        }
+        return checkDisks(GameState.topDisk(word, disks, from), GameState.topDisk(word, disks, to));
+    }
+
+    private static Violation checkPegs(int pegs, int from, int to) {
+        if (from < 0 || from >= pegs || to < 0 || to >= pegs) {
+            return Violation.INVALID_PEG;
+        }
+        if (from == to) {
+            return Violation.SAME_PEG;
+        }
+        return Violation.NONE;
+    }
+
+    // Top disk of the source and of the target peg, 0 when empty
+    private static Violation checkDisks(int disk, int target) {
+        if (disk == 0) {
+            return Violation.EMPTY_PEG;
+        }
+        if (target != 0 && disk > target) {
+            return Violation.LARGER_ON_SMALLER;
+        }
+        return Violation.NONE;
+    }
+
+    /**
+     * Applies the move if it is legal. Returns false, and ignores every
+     * further move, once an illegal one has been seen.
+     */
+    public boolean accept(int from, int to) {
+        if (violation != Violation.NONE) {
+            return false;
+        }
+        Violation v = check(state, from, to);
+        if (v != Violation.NONE) {
+            violation = v;
+            failedAt = moves;
+            return false;
+        }
+        state.move(from, to);
+        moves++;
+        return true;
+    }
+
+    public Violation finish() {
+        if (violation == Violation.NONE && !state.isComplete(targetPeg)) {
+            violation = Violation.NOT_SOLVED;
+            failedAt = moves;
+        }
+        return violation;
+    }
+
+    public ValidationResult result(Path file) {
+        finish();
+        return new ValidationResult(file, state.disks(), moves, failedAt, violation);
+    }
+
+    public GameState state() {
+        return state;
+    }
+
+    /**
+     * Validates a recording or an exported solution, reading it into
+     * {@code scratch} when it fits so that a worker can reuse one buffer for
+     * every file.
+     */
+    public static ValidationResult validate(Path file, ByteBuffer scratch) throws IOException {
+        if (SolutionFile.isSolution(file)) {
+            SolutionFile solution = SolutionFile.open(file);
+            MoveValidator validator = new MoveValidator(solution.disks());
+            solution.scan(scratch, validator::accept);
+            return validator.result(file);
+        }
+        GameRecording recording = GameRecording.read(file, scratch);
+        MoveValidator validator = new MoveValidator(recording.disks());
+        GameRecording.Cursor cursor = recording.cursor();
+        while (cursor.next()) {
+            if (!validator.accept(cursor.from(), cursor.to())) {
+                break;
+            }
+        }
+        return validator.result(file);
+    }
+
+}
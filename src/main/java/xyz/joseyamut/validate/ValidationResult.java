@@ -0,0 +1,25 @@
+package xyz.joseyamut.validate;
+
+import java.nio.file.Path;
+
+/**
+ * Outcome of validating one move sequence. {@code failedAt} is the 0-based
+ * index of the first illegal move, the move count for {@link Violation#NOT_SOLVED},
+ * and -1 when the sequence is valid.
+ */
+public record ValidationResult(Path file, int disks, long moves, long failedAt, Violation violation) {
+
+    public boolean isValid() {
+        return violation == Violation.NONE;
+    }
+
+    @Override
+    public String toString() {
+        String name = file == null ? "moves" : file.toString();
+        if (isValid()) {
+            return name + ": OK, " + moves + " moves with " + disks + " disks";
+        }
+        return name + ": move " + failedAt + ": " + violation.message();
+    }
+
+}
@@ -0,0 +1,26 @@
+package xyz.joseyamut.validate;
+
+public enum Violation {
+
+    NONE("Valid move..."),
+    INVALID_PEG("There is no such peg."),
+    SAME_PEG("A disk must move to a different peg."),
+    EMPTY_PEG("That stack is empty."),
+    LARGER_ON_SMALLER("A bigger disk cannot be placed on top of a smaller one!"),
+    NOT_SOLVED("The tower was not rebuilt on the last peg."),
+    UNREADABLE("The moves could not be read."),
+    WRONG_DIRECTION("Disks only move clockwise: X to Y, Y to Z and Z to X."),
+    NOT_ADJACENT("Disks only move to a neighbouring peg."),
+    SAME_COLOUR("A disk cannot be placed on one of its own colour.");
+
+    private final String message;
+
+    Violation(String message) {
+        this.message = message;
+    }
+
+    public String message() {
+        return message;
+    }
+
+}
@@ -0,0 +1,83 @@
+package xyz.joseyamut.gfx;
+
+import org.junit.jupiter.api.Test;
+import xyz.joseyamut.util.FixedStack;
+import xyz.joseyamut.util.GameState;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StackDisplayUpdaterTest {
+
+    private final BufferedImage image = new BufferedImage(600, 440, BufferedImage.TYPE_INT_RGB);
+
+    @Test
+    void drawingLeavesFixedStacksUnchanged() {
+        for (int disks : new int[]{1, 8, 64}) {
+            StageLayout layout = new StageLayout(600, 440, disks + 1, 3);
+            FixedStack stack = new FixedStack(disks);
+            for (int disk = disks; disk >= 1; disk--) {
+                stack.push(disk);
+            }
+            // Partly popped, so elements above the top are stale and must stay out of the picture
+            stack.pop();
+            int[] contents = stack.snapshot();
+            int size = stack.size();
+            int top = size == 0 ? 0 : stack.top();
+
+            Graphics2D g = image.createGraphics();
+            try {
+                for (int peg = 0; peg < 3; peg++) {
+                    StackDisplayUpdater.draw(g, layout, stack, peg, new Rectangle());
+                }
+            } finally {
+                g.dispose();
+            }
+
+            assertArrayEquals(contents, stack.snapshot(), "contents changed with " + disks + " disks");
+            assertEquals(size, stack.size(), "size changed with " + disks + " disks");
+            assertEquals(disks, stack.capacity());
+            if (size > 0) {
+                assertEquals(top, stack.top(), "top changed with " + disks + " disks");
+            }
+        }
+    }
+
+    @Test
+    void drawingLeavesGameStatesUnchanged() {
+        for (int disks : new int[]{1, 8, 64}) {
+            StageLayout layout = new StageLayout(600, 440, disks + 1, 3);
+            GameState state = new GameState(disks);
+            // Spread the disks over all pegs
+            for (int disk = 1; disk <= disks; disk++) {
+                state.place(disk, disk % 3);
+            }
+            GameState before = state.copy();
+            int[] sizes = new int[3];
+            int[] tops = new int[3];
+            for (int peg = 0; peg < 3; peg++) {
+                sizes[peg] = state.size(peg);
+                tops[peg] = state.topDisk(peg);
+            }
+
+            Graphics2D g = image.createGraphics();
+            try {
+                for (int peg = 0; peg < 3; peg++) {
+                    StackDisplayUpdater.draw(g, layout, state, peg, tops[peg], false, new Rectangle());
+                    StackDisplayUpdater.draw(g, layout, state, peg, 0, true, new Rectangle());
+                }
+            } finally {
+                g.dispose();
+            }
+
+            assertEquals(before, state, "position changed with " + disks + " disks");
+            for (int peg = 0; peg < 3; peg++) {
+                assertEquals(sizes[peg], state.size(peg), "size of peg " + peg + " changed");
+                assertEquals(tops[peg], state.topDisk(peg), "top of peg " + peg + " changed");
+            }
+        }
+    }
+
+}
@@ -0,0 +1,150 @@
+package xyz.joseyamut.gfx;
+
+import org.junit.jupiter.api.Test;
+import xyz.joseyamut.util.FixedStack;
+import xyz.joseyamut.util.GameState;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StageSnapshotTest {
+
+    private static final int DISKS = 8;
+    private static final int PEGS = 3;
+    private static final int MOVES = 2000;
+
+    // A snapshot with the position as it was when captured on the EDT
+    private record Frame(StageSnapshot snapshot, long lo, long hi) {
+    }
+
+    @Test
+    void snapshotsDrawTheirOwnPositionWhileTheStageMoves() throws Exception {
+        FixedStack initialStack = new FixedStack(DISKS);
+        for (int disk = DISKS; disk > 0; disk--) {
+            initialStack.push(disk);
+        }
+        Stage stage = new Stage(initialStack, PEGS);
+        stage.setSize(600, 440);
+        // The first capture lays the stage out, so clicks land on the pegs
+        AtomicReference<StageSnapshot> first = new AtomicReference<>();
+        SwingUtilities.invokeAndWait(() -> first.set((StageSnapshot) stage.captureScene()));
+        Point[] pegCentres = new Point[PEGS];
+        for (int peg = 0; peg < PEGS; peg++) {
+            Rectangle area = first.get().layout().stackArea(peg, new Rectangle());
+            pegCentres[peg] = new Point(area.x + area.width / 2, area.y + area.height / 2);
+        }
+
+        // Like Backstage, frames the drawer has not got to yet are dropped
+        BlockingQueue<Frame> frames = new ArrayBlockingQueue<>(2);
+        AtomicBoolean moving = new AtomicBoolean(true);
+        AtomicInteger drawn = new AtomicInteger();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread drawer = new Thread(() -> {
+            BufferedImage image = new BufferedImage(600, 440, BufferedImage.TYPE_INT_RGB);
+            BufferedImage expected = new BufferedImage(600, 440, BufferedImage.TYPE_INT_RGB);
+            try {
+                while (moving.get() || !frames.isEmpty()) {
+                    Frame frame = frames.poll(10, TimeUnit.MILLISECONDS);
+                    if (frame != null) {
+                        checkFrame(frame, image, expected);
+                        drawn.incrementAndGet();
+                    }
+                }
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        }, "drawer");
+        drawer.start();
+
+        Random random = new Random(42);
+        try {
+            for (int i = 0; i < MOVES && failure.get() == null; i++) {
+                int from = random.nextInt(PEGS);
+                int to = random.nextInt(PEGS);
+                // The EDT moves on while the drawer is still on an earlier frame
+                SwingUtilities.invokeAndWait(() -> {
+                    click(stage, MouseEvent.MOUSE_PRESSED, pegCentres[from]);
+                    click(stage, MouseEvent.MOUSE_RELEASED, pegCentres[to]);
+                    StageSnapshot snapshot = (StageSnapshot) stage.captureScene();
+                    frames.offer(new Frame(snapshot, snapshot.state().lo(), snapshot.state().hi()));
+                });
+            }
+        } finally {
+            moving.set(false);
+            drawer.join();
+        }
+        assertNull(failure.get(), "drawer failed: " + failure.get());
+        assertTrue(stage.moveCount() > 0, "no move was applied");
+        assertTrue(drawn.get() > 1, "too few frames drawn: " + drawn.get());
+    }
+
+    // Draws the snapshot, then again from a fresh copy of the captured position,
+    // and the two pictures must match
+    private static void checkFrame(Frame frame, BufferedImage image, BufferedImage expected) {
+        StageSnapshot snapshot = frame.snapshot();
+        assertLegal(snapshot.state());
+        draw(snapshot, image);
+        assertEquals(frame.lo(), snapshot.state().lo(), "snapshot changed after capture");
+        assertEquals(frame.hi(), snapshot.state().hi(), "snapshot changed after capture");
+
+        GameState captured = new GameState(DISKS, PEGS);
+        captured.restore(frame.lo(), frame.hi());
+        draw(new StageSnapshot(snapshot.layout(), captured, snapshot.srcPeg(), snapshot.floatingDisk(),
+                snapshot.dragging(), snapshot.xPointMouse(), snapshot.yPointMouse(), snapshot.animatedMove(),
+                snapshot.animationProgress(), snapshot.hintFrom(), snapshot.hintTo(), snapshot.status(),
+                snapshot.elapsedTime(), snapshot.metricsOverlay(), snapshot.bicolour()), expected);
+        assertTrue(Arrays.equals(pixels(expected), pixels(image)), "frame differs from its captured position");
+    }
+
+    private static void draw(StageSnapshot snapshot, BufferedImage image) {
+        Graphics2D g = image.createGraphics();
+        try {
+            snapshot.draw(g);
+        } finally {
+            g.dispose();
+        }
+    }
+
+    private static int[] pixels(BufferedImage image) {
+        return ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    }
+
+    private static void click(Stage stage, int id, Point point) {
+        stage.dispatchEvent(new MouseEvent(stage, id, System.currentTimeMillis(), 0,
+                point.x, point.y, 1, false, MouseEvent.BUTTON1));
+    }
+
+    private static void assertLegal(GameState state) {
+        assertEquals(DISKS, state.disks());
+        assertEquals(PEGS, state.pegs());
+        int[] sizes = new int[PEGS];
+        int[] smallest = new int[PEGS];
+        for (int disk = DISKS; disk >= 1; disk--) {
+            int peg = state.peg(disk);
+            assertTrue(peg >= 0 && peg < PEGS, "disk " + disk + " is on peg " + peg);
+            sizes[peg]++;
+            smallest[peg] = disk;
+        }
+        int total = 0;
+        for (int peg = 0; peg < PEGS; peg++) {
+            assertEquals(sizes[peg], state.size(peg), "size of peg " + peg);
+            assertEquals(smallest[peg], state.topDisk(peg), "top of peg " + peg);
+            total += state.size(peg);
+        }
+        assertEquals(DISKS, total);
+    }
+
+}
@@ -0,0 +1,166 @@
+package xyz.joseyamut.server;
+
+import org.junit.jupiter.api.Test;
+import xyz.joseyamut.solver.IterativeSolver;
+import xyz.joseyamut.util.GameState;
+import xyz.joseyamut.validate.MoveValidator;
+import xyz.joseyamut.validate.Violation;
+
+import java.util.Random;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionTableTest {
+
+    private static final int ROUNDS = 2000;
+    private static final int MOVES_PER_ROUND = 100;
+
+    @Test
+    void staleJoinerCannotPlayOnAReusedSlot() {
+        SessionTable sessions = new SessionTable(1);
+        long owned = sessions.open(3, 3);
+        long joined = sessions.join(SessionTable.id(owned));
+        assertEquals(1, sessions.move(joined, 0, 2));
+
+        sessions.close(owned);
+        long reopened = sessions.open(3, 3);
+        assertEquals(SessionTable.id(owned), SessionTable.id(reopened));
+
+        assertThrows(IllegalStateException.class, () -> sessions.move(joined, 0, 1));
+        assertThrows(IllegalStateException.class, () -> sessions.reset(joined));
+        assertThrows(IllegalStateException.class, () -> sessions.state(joined));
+        assertThrows(IllegalStateException.class, () -> sessions.close(joined));
+        assertEquals(0, sessions.moves(reopened));
+        assertEquals(new GameState(3), sessions.state(reopened));
+        assertThrows(IllegalArgumentException.class, () -> sessions.join(1));
+    }
+
+    @Test
+    void movesFollowTheValidatorRules() {
+        Random random = new Random(19);
+        SessionTable sessions = new SessionTable(2);
+        for (int pegs = GameState.PEGS; pegs <= GameState.MAX_PEGS; pegs++) {
+            long session = sessions.open(6, pegs);
+            GameState state = new GameState(6, pegs);
+            for (int i = 0; i < 10_000; i++) {
+                int from = random.nextInt(pegs + 1) - (random.nextInt(8) == 0 ? 1 : 0);
+                int to = random.nextInt(pegs + 1);
+                Violation expected = MoveValidator.check(state, from, to);
+                int result = sessions.move(session, from, to);
+                assertEquals(expected, SessionTable.violation(result), "move " + from + " -> " + to);
+                if (expected == Violation.NONE) {
+                    assertEquals(state.move(from, to), result);
+                }
+                assertEquals(state, sessions.state(session));
+            }
+            sessions.close(session);
+        }
+    }
+
+    @Test
+    void concurrentPlayersCountEveryMoveOnce() throws InterruptedException {
+        SessionTable sessions = new SessionTable(1);
+        long session = sessions.open(10, 3);
+        Thread[] players = new Thread[4];
+        int[] applied = new int[players.length];
+        for (int p = 0; p < players.length; p++) {
+            int player = p;
+            players[p] = new Thread(() -> {
+                Random random = new Random(player);
+                for (int i = 0; i < 50_000; i++) {
+                    if (sessions.move(session, random.nextInt(3), random.nextInt(3)) > 0) {
+                        applied[player]++;
+                    }
+                }
+            });
+            players[p].start();
+        }
+        for (Thread player : players) {
+            player.join();
+        }
+
+        long total = 0;
+        for (int count : applied) {
+            total += count;
+        }
+        assertEquals(total, sessions.moves(session));
+    }
+
+    @Test
+    void solutionSolvesTheGame() {
+        SessionTable sessions = new SessionTable(1);
+        long session = sessions.open(12, 3);
+        IterativeSolver.solve(12, (disk, from, to) -> assertEquals(disk, sessions.move(session, from, to)));
+        assertTrue(sessions.isSolved(session));
+        assertEquals(IterativeSolver.moveCount(12), sessions.moves(session));
+    }
+
+    @Test
+    void movesRacingResetsAreWipedOrCounted() throws Exception {
+        SessionTable sessions = new SessionTable(1);
+        long session = sessions.open(1, 3);
+        raceRounds(sessions, new AtomicLong(session), current -> {
+            sessions.reset(current);
+            return current;
+        });
+    }
+
+    @Test
+    void movesRacingAReopenStayInTheirOwnGame() throws Exception {
+        SessionTable sessions = new SessionTable(1);
+        long session = sessions.open(1, 3);
+        raceRounds(sessions, new AtomicLong(session), current -> {
+            sessions.close(current);
+            return sessions.open(1, 3);
+        });
+    }
+
+    // Players move the one disk round the pegs, so a game is consistent when
+    // the disk sits on peg moves % 3.
+    // Each round the disruptor resets or reopens the game while they move
+    private static void raceRounds(SessionTable sessions, AtomicLong handle, LongUnaryOperator disruptor)
+            throws Exception {
+        Thread[] players = new Thread[2];
+        CyclicBarrier barrier = new CyclicBarrier(players.length + 1);
+        for (int p = 0; p < players.length; p++) {
+            int player = p;
+            players[p] = new Thread(() -> {
+                try {
+                    for (int round = 0; round < ROUNDS; round++) {
+                        barrier.await();
+                        for (int i = 0; i < MOVES_PER_ROUND; i++) {
+                            int from = (i + player) % 3;
+                            try {
+                                sessions.move(handle.get(), from, (from + 1) % 3);
+                            } catch (IllegalStateException e) {
+                                // Closed under a stale handle; the next read picks up the new game
+                            }
+                        }
+                        barrier.await();
+                    }
+                } catch (InterruptedException | BrokenBarrierException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            players[p].start();
+        }
+
+        for (int round = 0; round < ROUNDS; round++) {
+            barrier.await();
+            handle.set(disruptor.applyAsLong(handle.get()));
+            barrier.await();
+
+            long session = handle.get();
+            long moves = sessions.moves(session);
+            assertEquals(moves % 3, sessions.state(session).peg(1), moves + " moves in round " + round);
+        }
+        for (Thread player : players) {
+            player.join();
+        }
+    }
+
+}
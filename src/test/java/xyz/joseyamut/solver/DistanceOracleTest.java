@@ -0,0 +1,75 @@
+package xyz.joseyamut.solver;
+
+import org.junit.jupiter.api.Test;
+import xyz.joseyamut.util.GameState;
+import xyz.joseyamut.validate.MoveValidator;
+import xyz.joseyamut.validate.Violation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DistanceOracleTest {
+
+    private static final int MAX_DISKS = 8;
+
+    @Test
+    void distanceMatchesSearchForEveryState() {
+        for (int disks = 1; disks <= MAX_DISKS; disks++) {
+            StateSpaceExplorer explorer = new StateSpaceExplorer(disks);
+            GameState goal = tower(disks, Move.PEG_Z);
+            for (long rank = 0; rank < explorer.states(); rank++) {
+                GameState state = explorer.state(rank);
+                assertEquals(explorer.distance(state, goal), DistanceOracle.distance(state),
+                        "distance of " + state);
+            }
+        }
+    }
+
+    @Test
+    void nextMoveIsLegalAndGetsOneMoveCloser() {
+        for (int disks = 1; disks <= MAX_DISKS; disks++) {
+            StateSpaceExplorer explorer = new StateSpaceExplorer(disks);
+            for (long rank = 0; rank < explorer.states(); rank++) {
+                GameState state = explorer.state(rank);
+                long distance = DistanceOracle.distance(state);
+                int move = DistanceOracle.nextMove(state);
+                if (distance == 0) {
+                    assertEquals(DistanceOracle.NO_MOVE, move);
+                    continue;
+                }
+                assertEquals(Violation.NONE, MoveValidator.check(state, Move.from(move), Move.to(move)),
+                        "next move from " + state);
+                assertEquals(Move.disk(move), state.move(Move.from(move), Move.to(move)));
+                assertEquals(distance - 1, DistanceOracle.distance(state), "distance after the next move");
+            }
+        }
+    }
+
+    @Test
+    void solverLengthMatchesSearchAndDiameter() {
+        for (int disks = 1; disks <= MAX_DISKS; disks++) {
+            StateSpaceExplorer explorer = new StateSpaceExplorer(disks);
+            GameState start = tower(disks, Move.PEG_X);
+            StateSpaceExplorer.Exploration exploration = explorer.explore(start);
+            assertEquals(explorer.states(), exploration.reached());
+            assertEquals(IterativeSolver.moveCount(disks), exploration.eccentricity());
+            assertEquals(IterativeSolver.moveCount(disks), explorer.distance(start, tower(disks, Move.PEG_Z)));
+
+            GameState state = start.copy();
+            IterativeSolver.solve(disks, (disk, from, to) -> {
+                assertEquals(Violation.NONE, MoveValidator.check(state, from, to),
+                        "solver move " + disk + " " + from + " -> " + to);
+                state.move(from, to);
+            });
+            assertTrue(state.isComplete(Move.PEG_Z));
+        }
+    }
+
+    private static GameState tower(int disks, int peg) {
+        GameState state = new GameState(disks);
+        for (int disk = 1; disk <= disks; disk++) {
+            state.place(disk, peg);
+        }
+        return state;
+    }
+
+}
@@ -0,0 +1,102 @@
+package xyz.joseyamut.solver;
+
+import org.junit.jupiter.api.Test;
+import xyz.joseyamut.util.GameState;
+import xyz.joseyamut.validate.MoveValidator;
+import xyz.joseyamut.validate.Violation;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OptimalityTrackerTest {
+
+    @Test
+    void randomWalksMatchTheOracle() {
+        Random random = new Random(24);
+        for (int disks : new int[]{1, 2, 5, 8, 20, 63, 64}) {
+            OptimalityTracker tracker = new OptimalityTracker(disks);
+            GameState state = new GameState(disks);
+            long firstWasted = -1;
+            for (long moves = 1; moves <= 5_000; moves++) {
+                int[] move = randomMove(state, random);
+                state.move(move[0], move[1]);
+                tracker.accept(move[0], move[1]);
+                if (firstWasted < 0 && wasted(state, moves) != 0) {
+                    firstWasted = moves - 1;
+                }
+                assertTracks(tracker, state, moves, disks + " disks after " + moves + " moves");
+                assertEquals(firstWasted, tracker.firstWastedMove(), disks + " disks after " + moves + " moves");
+            }
+        }
+    }
+
+    @Test
+    void solutionStaysOnThePath() {
+        OptimalityTracker tracker = new OptimalityTracker(10);
+        GameState state = new GameState(10);
+        long[] moves = {0};
+        IterativeSolver.solve(10, (disk, from, to) -> {
+            state.move(from, to);
+            tracker.accept(from, to);
+            assertTrue(tracker.isOnOptimalPath());
+            assertTracks(tracker, state, ++moves[0], "after " + moves[0] + " moves");
+        });
+        assertTrue(tracker.isSolved());
+        assertEquals(-1, tracker.firstWastedMove());
+    }
+
+    @Test
+    void resetPicksUpAnyPosition() {
+        Random random = new Random(25);
+        for (int disks : new int[]{3, 8, 64}) {
+            OptimalityTracker tracker = new OptimalityTracker(disks);
+            GameState state = new GameState(disks);
+            long moves = 0;
+            for (int jump = 0; jump < 200; jump++) {
+                // Somewhere else in the game, as after a jump through the history
+                for (int i = random.nextInt(50); i > 0; i--) {
+                    int[] move = randomMove(state, random);
+                    state.move(move[0], move[1]);
+                }
+                moves = Math.max(moves + random.nextInt(100) - 40, 0);
+                tracker.reset(state, moves);
+                assertTracks(tracker, state, moves, disks + " disks after reset " + jump);
+                assertEquals(wasted(state, moves) == 0 ? -1 : moves, tracker.firstWastedMove());
+
+                // And it carries on from there
+                for (int i = 0; i < 20; i++) {
+                    int[] move = randomMove(state, random);
+                    state.move(move[0], move[1]);
+                    tracker.accept(move[0], move[1]);
+                    moves++;
+                    assertTracks(tracker, state, moves, disks + " disks after reset " + jump);
+                }
+            }
+        }
+    }
+
+    private static void assertTracks(OptimalityTracker tracker, GameState state, long moves, String message) {
+        assertEquals(DistanceOracle.distance(state), tracker.distance(), message);
+        assertEquals(moves, tracker.moves(), message);
+        assertEquals(wasted(state, moves), tracker.wastedMoves(), message);
+        assertEquals(wasted(state, moves) == 0, tracker.isOnOptimalPath(), message);
+        assertEquals(DistanceOracle.distance(state) == 0, tracker.isSolved(), message);
+    }
+
+    // Moves made beyond the shortest solution's, unsigned like the move counts
+    private static long wasted(GameState state, long moves) {
+        return moves + DistanceOracle.distance(state) - IterativeSolver.moveCount(state.disks());
+    }
+
+    private static int[] randomMove(GameState state, Random random) {
+        while (true) {
+            int from = random.nextInt(GameState.PEGS);
+            int to = random.nextInt(GameState.PEGS);
+            if (MoveValidator.check(state, from, to) == Violation.NONE) {
+                return new int[]{from, to};
+            }
+        }
+    }
+
+}
@@ -0,0 +1,132 @@
+package xyz.joseyamut.util;
+
+import org.junit.jupiter.api.Test;
+import xyz.joseyamut.validate.MoveValidator;
+import xyz.joseyamut.validate.Violation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoveHistoryTest {
+
+    @Test
+    void walksMatchAReplayFromTheStart() {
+        // Growing from the initial ring, and held to the smallest cap and a few intervals
+        walk(MoveHistory.DEFAULT_MAX_MOVES, 3, 20_000, 1);
+        walk(MoveHistory.CHECKPOINT_INTERVAL, 3, 3_000, 2);
+        walk(1024, 4, 6_000, 3);
+    }
+
+    @Test
+    void newMoveCutsOffRedo() {
+        MoveHistory history = new MoveHistory();
+        GameState state = new GameState(3);
+        record(history, state, 0, 2);
+        record(history, state, 0, 1);
+        assertTrue(history.undo(state));
+        assertTrue(history.canRedo());
+
+        record(history, state, 0, 1);
+        assertFalse(history.canRedo());
+        assertFalse(history.redo(state));
+        assertEquals(2, history.position());
+        assertEquals(2, history.end());
+        GameState expected = new GameState(3);
+        expected.move(0, 2);
+        expected.move(0, 1);
+        assertEquals(expected, state);
+    }
+
+    @Test
+    void capDropsTheOldestInterval() {
+        int cap = 2 * MoveHistory.CHECKPOINT_INTERVAL;
+        MoveHistory history = new MoveHistory(cap);
+        GameState state = new GameState(5);
+        Random random = new Random(7);
+        for (int i = 0; i < cap; i++) {
+            randomMove(history, state, random);
+        }
+        assertEquals(0, history.start());
+
+        randomMove(history, state, random);
+        assertEquals(MoveHistory.CHECKPOINT_INTERVAL, history.start());
+        assertEquals(cap + 1, history.end());
+        assertThrows(IllegalArgumentException.class,
+                () -> history.jumpTo(MoveHistory.CHECKPOINT_INTERVAL - 1, state));
+        history.jumpTo(history.start(), state);
+        assertFalse(history.canUndo());
+        assertFalse(history.undo(state));
+    }
+
+    // Random records, undos, redos and jumps, each checked against the moves
+    // replayed one by one from the tower
+    private static void walk(long maxMoves, int pegs, int steps, long seed) {
+        MoveHistory history = new MoveHistory(maxMoves);
+        Random random = new Random(seed);
+        GameState initial = new GameState(6, pegs);
+        GameState state = initial.copy();
+        List<int[]> moves = new ArrayList<>();
+        long start = 0;
+        long position = 0;
+        for (int step = 0; step < steps; step++) {
+            int op = random.nextInt(20);
+            if (op < 12) {
+                // Only a few undone moves are cut off, so the game keeps growing
+                if (moves.size() - position > 3 || position < moves.size() && random.nextBoolean()) {
+                    history.jumpTo(moves.size(), state);
+                    position = moves.size();
+                }
+                // The oldest interval goes once the ring is full at its largest
+                if (position - start == maxMoves) {
+                    start += MoveHistory.CHECKPOINT_INTERVAL;
+                }
+                int[] move = randomMove(history, state, random);
+                moves.subList((int) position, moves.size()).clear();
+                moves.add(move);
+                position++;
+            } else if (op < 14) {
+                assertEquals(position > start, history.undo(state));
+                position = Math.max(position - 1, start);
+            } else if (op < 17) {
+                assertEquals(position < moves.size(), history.redo(state));
+                position = Math.min(position + 1, moves.size());
+            } else {
+                long move = start + (long) (random.nextDouble() * (moves.size() - start + 1));
+                history.jumpTo(move, state);
+                position = move;
+            }
+            assertEquals(start, history.start(), "start after step " + step);
+            assertEquals(position, history.position(), "position after step " + step);
+            assertEquals(moves.size(), history.end(), "end after step " + step);
+            assertEquals(replay(initial, moves, position), state, "position after step " + step);
+        }
+    }
+
+    private static GameState replay(GameState initial, List<int[]> moves, long count) {
+        GameState state = initial.copy();
+        for (int i = 0; i < count; i++) {
+            state.move(moves.get(i)[0], moves.get(i)[1]);
+        }
+        return state;
+    }
+
+    private static int[] randomMove(MoveHistory history, GameState state, Random random) {
+        while (true) {
+            int from = random.nextInt(state.pegs());
+            int to = random.nextInt(state.pegs());
+            if (MoveValidator.check(state, from, to) == Violation.NONE) {
+                record(history, state, from, to);
+                return new int[]{from, to};
+            }
+        }
+    }
+
+    private static void record(MoveHistory history, GameState state, int from, int to) {
+        history.record(state, from, to);
+        state.move(from, to);
+    }
+
+}
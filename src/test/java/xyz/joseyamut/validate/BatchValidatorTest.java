@@ -0,0 +1,103 @@
+package xyz.joseyamut.validate;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import xyz.joseyamut.record.GameRecorder;
+import xyz.joseyamut.solver.IterativeSolver;
+import xyz.joseyamut.util.MoveCodes;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchValidatorTest {
+
+    // Offsets of the recording layout
+    private static final int DISKS_OFFSET = 6;
+    private static final int DATA_END_OFFSET = 24;
+    private static final int FIRST_BLOCK_OFFSET = 32;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void damagedRecordingsAreUnreadableAndTheBatchGoesOn() throws Exception {
+        Path good = record("good.tohr", 5);
+
+        Path truncated = record("truncated.tohr", 5);
+        // Into the last move, the file is padded past the data end
+        try (FileChannel channel = FileChannel.open(truncated, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer dataEnd = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(dataEnd, DATA_END_OFFSET);
+            channel.truncate(dataEnd.getLong(0) - 3);
+        }
+
+        Path disks = record("disks.tohr", 5);
+        patch(disks, DISKS_OFFSET, buffer -> buffer.put((byte) 200));
+
+        Path code = record("code.tohr", 5);
+        patch(code, FIRST_BLOCK_OFFSET, buffer -> {
+            long block = buffer.getLong(0);
+            buffer.putLong(0, MoveCodes.withCode(block, 2, 6));
+        });
+
+        Path garbage = dir.resolve("garbage.tohr");
+        Files.write(garbage, new byte[]{1, 2, 3});
+
+        List<Path> files = List.of(truncated, good, disks, code, garbage);
+        List<ValidationResult> results = BatchValidator.validateAll(files, 2);
+        assertEquals(files.size(), results.size());
+        for (int i = 0; i < files.size(); i++) {
+            assertEquals(files.get(i), results.get(i).file());
+            Violation expected = files.get(i) == good ? Violation.NONE : Violation.UNREADABLE;
+            assertEquals(expected, results.get(i).violation(), files.get(i).getFileName().toString());
+        }
+
+        List<GameScore> scores = BatchValidator.scoreAll(files, 2);
+        for (int i = 0; i < files.size(); i++) {
+            Violation expected = files.get(i) == good ? Violation.NONE : Violation.UNREADABLE;
+            assertEquals(expected, scores.get(i).violation(), files.get(i).getFileName().toString());
+        }
+        assertTrue(scores.get(1).isOptimal());
+    }
+
+    private Path record(String name, int disks) throws IOException {
+        Path file = dir.resolve(name);
+        try (GameRecorder recorder = new GameRecorder(file, disks, 0)) {
+            IterativeSolver.solve(disks, (disk, from, to) -> {
+                try {
+                    recorder.append(from, to, 0);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        return file;
+    }
+
+    private interface Patch {
+
+        void apply(ByteBuffer buffer);
+
+    }
+
+    private static void patch(Path file, int offset, Patch patch) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(buffer, offset);
+            buffer.clear();
+            patch.apply(buffer);
+            buffer.clear();
+            channel.write(buffer, offset);
+        }
+    }
+
+}